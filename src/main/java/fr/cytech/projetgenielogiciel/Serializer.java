@@ -1,10 +1,18 @@
 package fr.cytech.projetgenielogiciel;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.MazeFormat;
 
 /**
  * This class provides methods to serialize and deserialize objects.
- * That's kind of it really.
+ * Mazes have their own binary format, see MazeFormat.
  */
 public final class Serializer {
     /**
@@ -34,4 +42,49 @@ public final class Serializer {
             return classname.cast(in.readObject());
         }
     }
+
+    /**
+     * Writes a maze to a file, in the MazeFormat.
+     *
+     * @param maze       the maze to write
+     * @param filename   the file to write to
+     * @param withStates whether to write the default state layer of the maze
+     */
+    public static void serializeMaze(Maze maze, String filename, Boolean withStates) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MazeFormat.write(maze, channel, withStates);
+        }
+    }
+
+    /**
+     * Reads a maze from a file.
+     * Files that do not start with the MazeFormat magic bytes are read as a
+     * serialized Maze object instead. Only objects serialized by the current
+     * version of Maze can be read that way: saves from before the MazeFormat
+     * have another class layout, and fail with an IOException saying so.
+     *
+     * @param filename the file to read from
+     * @return the maze
+     */
+    public static Maze deserializeMaze(String filename) throws IOException, ClassNotFoundException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(MazeFormat.MAGIC.length);
+            int read = 0;
+            while (magic.hasRemaining() && read >= 0) {
+                read = channel.read(magic);
+            }
+            if (Arrays.equals(magic.array(), MazeFormat.MAGIC)) {
+                channel.position(0);
+                return MazeFormat.read(channel);
+            }
+        }
+        try {
+            return deserialize(filename, Maze.class);
+        } catch (InvalidClassException ex) {
+            throw new IOException("This maze was saved by an older version of the program and cannot be loaded", ex);
+        } catch (StreamCorruptedException | ClassCastException ex) {
+            throw new IOException("This file is not a maze", ex);
+        }
+    }
 }
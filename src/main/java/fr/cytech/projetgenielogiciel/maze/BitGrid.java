@@ -0,0 +1,216 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Class representing the connections of a rectangular grid as packed bits.
+ *
+ * Every cell owns 4 bits, one per direction, in the order of
+ * Direction.ordinal(). A set bit means the cell is connected to its neighbor
+ * in that direction, i.e. there is no wall there.
+ * 16 cells are packed in every long, in row-major order: the cell (x, y)
+ * has the index x + y * columns.
+ *
+ * This is much lighter than an AdjacencyList, since no objects are
+ * created per cell or per connection.
+ *
+ * set and clear are not thread-safe, as 16 cells share a word. Threads
+ * working on different cells at once must use setAtomic and clearAtomic.
+ */
+public final class BitGrid implements IConnectionGrid, Serializable {
+    /**
+     * Number of bits used by a single cell.
+     */
+    private static final int BITS_PER_CELL = 4;
+
+    /**
+     * Number of cells packed in a single long.
+     */
+    private static final int CELLS_PER_WORD = Long.SIZE / BITS_PER_CELL;
+
+    /**
+     * Mask of the bits of a single cell.
+     */
+    private static final long CELL_MASK = (1L << BITS_PER_CELL) - 1;
+
+    /**
+     * Handle for atomic updates of the words.
+     */
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Number of columns of the grid.
+     */
+    private final int columns;
+
+    /**
+     * Number of rows of the grid.
+     */
+    private final int rows;
+
+    /**
+     * The packed connection bits.
+     */
+    private final long[] bits;
+
+    /**
+     * Constructor for a grid with every wall closed.
+     *
+     * @param columns the number of columns of the grid
+     * @param rows    the number of rows of the grid
+     */
+    public BitGrid(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        this.bits = new long[(int) (((long) columns * rows + CELLS_PER_WORD - 1) / CELLS_PER_WORD)];
+    }
+
+    /**
+     * Get the position of the bit of a cell for a given direction.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction
+     * @return the position of the bit in its word
+     */
+    private static int shift(int index, Direction direction) {
+        return (index % CELLS_PER_WORD) * BITS_PER_CELL + direction.ordinal();
+    }
+
+    /**
+     * Opens the wall of a cell in a given direction.
+     * This only affects the given cell, not its neighbor.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to open
+     */
+    @Override
+    public void set(int index, Direction direction) {
+        bits[index / CELLS_PER_WORD] |= 1L << shift(index, direction);
+    }
+
+    /**
+     * Closes the wall of a cell in a given direction.
+     * This only affects the given cell, not its neighbor.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to close
+     */
+    @Override
+    public void clear(int index, Direction direction) {
+        bits[index / CELLS_PER_WORD] &= ~(1L << shift(index, direction));
+    }
+
+    /**
+     * Opens the wall of a cell in a given direction, atomically.
+     * Other threads may update other cells of the grid at the same time.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to open
+     */
+    public void setAtomic(int index, Direction direction) {
+        WORDS.getAndBitwiseOr(bits, index / CELLS_PER_WORD, 1L << shift(index, direction));
+    }
+
+    /**
+     * Closes the wall of a cell in a given direction, atomically.
+     * Other threads may update other cells of the grid at the same time.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to close
+     */
+    public void clearAtomic(int index, Direction direction) {
+        WORDS.getAndBitwiseAnd(bits, index / CELLS_PER_WORD, ~(1L << shift(index, direction)));
+    }
+
+    /**
+     * Checks whether a cell is open in a given direction.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to check
+     * @return true if the cell is connected in the given direction
+     */
+    @Override
+    public boolean has(int index, Direction direction) {
+        return (bits[index / CELLS_PER_WORD] & (1L << shift(index, direction))) != 0;
+    }
+
+    /**
+     * Get all of the connection bits of a cell at once.
+     * Bit n of the result is set if the cell is connected in the direction
+     * of ordinal n.
+     *
+     * @param index the index of the cell
+     * @return the 4 bit connection mask of the cell
+     */
+    @Override
+    public int getMask(int index) {
+        return (int) ((bits[index / CELLS_PER_WORD] >>> ((index % CELLS_PER_WORD) * BITS_PER_CELL)) & CELL_MASK);
+    }
+
+    /**
+     * Whether a cell may be connected to a neighbor without the neighbor
+     * being connected back. Every cell owns its 4 bits, so this is true.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsOneWay() {
+        return true;
+    }
+
+    /**
+     * Get the number of columns of the grid.
+     *
+     * @return the number of columns
+     */
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of rows of the grid.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * HashCode implementation for the grid.
+     *
+     * @return the hash code of the grid
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + columns;
+        result = prime * result + rows;
+        result = prime * result + Arrays.hashCode(bits);
+        return result;
+    }
+
+    /**
+     * Equals implementation for the grid.
+     *
+     * @param obj the object to compare to
+     * @return true if the objects are equivalent, false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        BitGrid other = (BitGrid) obj;
+        return columns == other.columns && rows == other.rows && Arrays.equals(bits, other.bits);
+    }
+}
@@ -6,63 +6,67 @@ import java.io.Serializable;
 
 /**
  * Class representing a cell in a maze.
+ *
+ * A cell is only a lightweight view over a state layer of its maze: the
+ * state of the cell is stored by the layer, in a single byte per cell.
+ * Cells can thus be created on demand and thrown away, two cells with the
+ * same ID being equal.
  */
 public class Cell implements Serializable {
     /**
-     * The number of cells created.
+     * The layer holding the state of the cell.
      */
-    static private Integer totalCellCount = 0;
+    private final StateLayer layer;
 
     /**
-     * The color of the cell, used for various display needs.
+     * The ID of the cell.
+     */
+    private final Integer id;
+
+    /**
+     * Constructor for a cell with a given ID.
+     * Cell IDs are allocated by the maze owning the cell, from its position,
+     * so there is no shared counter and mazes may be created concurrently.
+     *
+     * @param layer the layer holding the state of the cell
+     * @param id    the ID of the cell
      */
-    private State state = State.UNPROCESSED;
+    public Cell(StateLayer layer, Integer id) {
+        this.layer = layer;
+        this.id = id;
+    }
 
     /**
      * Get the current color as a JavaFX Color
      */
     public Color getColor() {
-        return switch (state) {
-            case UNPROCESSED -> {
-                yield Color.WHITE;
-            }
-            case QUEUED -> {
-                yield Color.YELLOW;
-            }
-            case PROCESSED -> {
-                yield Color.BLUE;
-            }
-            case IN_PATH -> {
-                yield Color.GREEN;
-            }
-            case CURRENT -> {
-                yield Color.RED;
-            }
-        };
+        return getState().getColor();
     }
 
     /**
      * Set the color using a JavaFX Color
      */
     public void setColor(Color color) {
-        if (color.equals(Color.BLUE))
-            state = State.PROCESSED;
-        else if (color.equals(Color.RED))
-            state = State.CURRENT;
-        else if (color.equals(Color.WHITE))
-            state = State.UNPROCESSED;
-        else if (color.equals(Color.YELLOW))
-            state = State.QUEUED;
-        else if (color.equals(Color.GREEN))
-            state = State.IN_PATH;
-        else
-            state = State.UNPROCESSED;
+        setState(CellState.fromColor(color));
     }
 
     /**
-     * The ID of the cell.
+     * Get the current state of the cell.
+     *
+     * @return the state of the cell
      */
-    private final Integer id = totalCellCount++;
+    public CellState getState() {
+        return layer.getState(id);
+    }
+
+    /**
+     * Set the current state of the cell.
+     *
+     * @param state the new state of the cell
+     */
+    public void setState(CellState state) {
+        layer.setState(id, state);
+    }
 
     /**
      * HashCode method for the Cell class.
@@ -103,39 +107,13 @@ public class Cell implements Serializable {
     /**
      * Checks if this cell is valid.
      * Always returns true for now.
-     * 
+     *
      * @return true if the cell is valid, false otherwise
      */
     public Boolean isValid() {
         return true;
     }
 
-    /**
-     * Private enum representing the state of the cell.
-     */
-    private enum State {
-        /**
-         * The cell is unprocessed.
-         */
-        UNPROCESSED,
-        /**
-         * The cell is processed.
-         */
-        PROCESSED,
-        /**
-         * The cell is currently being processed.
-         */
-        CURRENT,
-        /**
-         * The cell is part of the path.
-         */
-        IN_PATH,
-        /**
-         * The cell is queued for processing.
-         */
-        QUEUED;
-    }
-
     /**
      * toString method for the Cell class.
      *
@@ -143,7 +121,7 @@ public class Cell implements Serializable {
      */
     @Override
     public String toString() {
-        return "Cell [state=" + state + ", id=" + id + "]";
+        return "Cell [state=" + getState() + ", id=" + id + "]";
     }
 
     /**
@@ -154,23 +132,4 @@ public class Cell implements Serializable {
     public Integer getId() {
         return id;
     }
-
-    /**
-     * Gets the total number of cells created.
-     *
-     * @return the total number of cells
-     */
-    public static Integer getTotalCellCount() {
-        return totalCellCount;
-    }
-
-    /**
-     * Sets the total number of cells created.
-     * Please only use this method if you know what you're doing.
-     *
-     * @param totalCellCount the new total number of cells
-     */
-    public static void setTotalCellCount(Integer totalCellCount) {
-        Cell.totalCellCount = totalCellCount;
-    }
 }
@@ -0,0 +1,102 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Enum representing the processing state of a cell, used for display.
+ *
+ * Mazes store these as a single byte per cell, see toByte and fromByte.
+ * UNPROCESSED must stay the first constant, as zeroed arrays are expected
+ * to be fully unprocessed.
+ */
+public enum CellState {
+    /**
+     * The cell is unprocessed.
+     */
+    UNPROCESSED(Color.WHITE),
+    /**
+     * The cell is processed.
+     */
+    PROCESSED(Color.BLUE),
+    /**
+     * The cell is currently being processed.
+     */
+    CURRENT(Color.RED),
+    /**
+     * The cell is part of the path.
+     */
+    IN_PATH(Color.GREEN),
+    /**
+     * The cell is queued for processing.
+     */
+    QUEUED(Color.YELLOW);
+
+    /**
+     * Cached values, to avoid copying the array on every lookup.
+     */
+    private static final CellState[] VALUES = values();
+
+    /**
+     * The color used to display the state.
+     */
+    private final Color color;
+
+    /**
+     * Constructor for a cell state.
+     *
+     * @param color the color used to display the state
+     */
+    CellState(Color color) {
+        this.color = color;
+    }
+
+    /**
+     * Get the color used to display the state.
+     *
+     * @return the JavaFX color of the state
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Get the byte representation of the state.
+     *
+     * @return the state as a byte
+     */
+    public byte toByte() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Get a state from its byte representation.
+     *
+     * @param value the state as a byte
+     * @return the corresponding state
+     */
+    public static CellState fromByte(byte value) {
+        return VALUES[value];
+    }
+
+    /**
+     * Get the state displayed with a given color.
+     * Unknown colors are treated as UNPROCESSED.
+     *
+     * @param color the JavaFX color
+     * @return the corresponding state
+     */
+    public static CellState fromColor(Color color) {
+        // The colors are constants, so identity is enough most of the time.
+        for (CellState state : VALUES) {
+            if (state.color == color) {
+                return state;
+            }
+        }
+        for (CellState state : VALUES) {
+            if (state.color.equals(color)) {
+                return state;
+            }
+        }
+        return UNPROCESSED;
+    }
+}
@@ -0,0 +1,188 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class representing a frozen snapshot of the connections of a maze, in
+ * compressed sparse row form.
+ *
+ * The neighbors of the cell of ID id are the targets at the indices
+ * [offsets[id], offsets[id + 1]), in the order Maze.getNeighbors gives them.
+ * A snapshot is built in a single pass over the maze and never changes
+ * afterwards, so it can be shared read-only between threads, e.g. to solve
+ * the same maze with many solvers at once. Changes to the maze made after
+ * the snapshot was taken are not reflected in it.
+ */
+public final class CsrGraph implements IMazeGraph, Serializable {
+    /**
+     * Number of columns of the maze.
+     */
+    private final int columns;
+
+    /**
+     * Number of rows of the maze.
+     */
+    private final int rows;
+
+    /**
+     * The index of the first neighbor of every cell, plus the total number
+     * of targets at the end.
+     */
+    private final int[] offsets;
+
+    /**
+     * The IDs of the neighbors of every cell, one cell after the other.
+     */
+    private final int[] targets;
+
+    /**
+     * Constructor for a snapshot of a maze.
+     * Prefer Maze.toCsrGraph.
+     *
+     * @param maze the maze to take a snapshot of
+     */
+    public CsrGraph(Maze maze) {
+        this.columns = maze.getWidth() + 1;
+        this.rows = maze.getHeight() + 1;
+        int cellCount = maze.getCellCount();
+        this.offsets = new int[cellCount + 1];
+
+        // A perfect maze has about 2 targets per cell, grow if needed
+        int[] buffer = new int[4];
+        int[] found = new int[Math.max(buffer.length, 2 * cellCount)];
+        int count = 0;
+        for (int id = 0; id < cellCount; id++) {
+            int degree = maze.getNeighbors(id, buffer);
+            if (count + degree > found.length) {
+                found = Arrays.copyOf(found, (int) Math.min(4L * cellCount, 2L * found.length));
+            }
+            System.arraycopy(buffer, 0, found, count, degree);
+            count += degree;
+            offsets[id + 1] = count;
+        }
+        this.targets = count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Get the number of cells of the snapshot.
+     *
+     * @return the number of cells
+     */
+    @Override
+    public int getCellCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Get the x coordinate of a cell from its ID, like Maze.getCellX.
+     *
+     * @param id the ID of the cell
+     * @return the x coordinate of the cell
+     */
+    @Override
+    public int getCellX(int id) {
+        return id % columns;
+    }
+
+    /**
+     * Get the y coordinate of a cell from its ID, like Maze.getCellY.
+     *
+     * @param id the ID of the cell
+     * @return the y coordinate of the cell
+     */
+    @Override
+    public int getCellY(int id) {
+        return id / columns;
+    }
+
+    /**
+     * Get the number of neighbors of a cell.
+     *
+     * @param id the ID of the cell
+     * @return the number of cells it is connected to
+     */
+    public int getDegree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Get the index of the first neighbor of a cell, see getTarget.
+     *
+     * @param id the ID of the cell
+     * @return the index of its first neighbor
+     */
+    public int getNeighborStart(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Get the index after the last neighbor of a cell, see getTarget.
+     *
+     * @param id the ID of the cell
+     * @return the index after its last neighbor
+     */
+    public int getNeighborEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * Get a neighbor by its index, between getNeighborStart(id) and
+     * getNeighborEnd(id) for the neighbors of id.
+     *
+     * @param index the index of the neighbor
+     * @return the ID of the neighbor
+     */
+    public int getTarget(int index) {
+        return targets[index];
+    }
+
+    /**
+     * Writes the IDs of the cells a cell is connected to into a buffer, like
+     * Maze.getNeighbors.
+     *
+     * @param id        the ID of the cell
+     * @param neighbors the buffer to write the IDs to, at least 4 long
+     * @return the number of IDs written
+     */
+    @Override
+    public int getNeighbors(int id, int[] neighbors) {
+        int start = offsets[id];
+        int degree = offsets[id + 1] - start;
+        System.arraycopy(targets, start, neighbors, 0, degree);
+        return degree;
+    }
+
+    /**
+     * Calls an action on the ID of every cell a cell is connected to,
+     * straight from the snapshot.
+     *
+     * @param id     the ID of the cell
+     * @param action the action to call on every neighbor
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+            action.accept(targets[i]);
+        }
+    }
+
+    /**
+     * Get the number of columns of the maze.
+     *
+     * @return the number of columns
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of rows of the maze.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+}
@@ -30,6 +30,39 @@ public enum Direction {
      */
     RIGHT;
 
+    /**
+     * Number of possible orderings of the four directions.
+     */
+    public static final int PERMUTATION_COUNT = 24;
+
+    /**
+     * Every ordering of the four directions, to pick a random one without
+     * shuffling a new list every time.
+     */
+    private static final Direction[][] PERMUTATIONS = new Direction[PERMUTATION_COUNT][];
+
+    static {
+        Direction[] all = values();
+        int index = 0;
+        for (Direction a : all)
+            for (Direction b : all)
+                for (Direction c : all)
+                    for (Direction d : all)
+                        if (a != b && a != c && a != d && b != c && b != d && c != d)
+                            PERMUTATIONS[index++] = new Direction[] { a, b, c, d };
+    }
+
+    /**
+     * Get one of the orderings of the four directions.
+     * The returned array is shared, and must not be modified.
+     *
+     * @param index the index of the ordering, in [0, PERMUTATION_COUNT)
+     * @return the directions, in that order
+     */
+    public static Direction[] permutation(int index) {
+        return PERMUTATIONS[index];
+    }
+
     /**
      * Get the opposite direction.
      *
@@ -0,0 +1,72 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+/**
+ * Interface for the connections of a rectangular grid of cells.
+ *
+ * Cells are given by their index, x + y * columns, and connections by the
+ * direction they go to from a cell. This is how a Maze stores its
+ * connections when it does not use an AdjacencyList, whatever the grid
+ * actually lives in.
+ */
+public interface IConnectionGrid {
+    /**
+     * Opens the wall of a cell in a given direction.
+     * If the grid does not support one-way connections, this also opens
+     * the wall of the neighbor.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to open
+     */
+    public void set(int index, Direction direction);
+
+    /**
+     * Closes the wall of a cell in a given direction.
+     * If the grid does not support one-way connections, this also closes
+     * the wall of the neighbor.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to close
+     */
+    public void clear(int index, Direction direction);
+
+    /**
+     * Checks whether a cell is open in a given direction.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to check
+     * @return true if the cell is connected in the given direction
+     */
+    public boolean has(int index, Direction direction);
+
+    /**
+     * Get all of the connection bits of a cell at once.
+     * Bit n of the result is set if the cell is connected in the direction
+     * of ordinal n.
+     *
+     * @param index the index of the cell
+     * @return the 4 bit connection mask of the cell
+     */
+    public int getMask(int index);
+
+    /**
+     * Whether a cell may be connected to a neighbor without the neighbor
+     * being connected back.
+     *
+     * @return true if one-way connections are supported
+     */
+    public boolean supportsOneWay();
+
+    /**
+     * Get the number of columns of the grid.
+     *
+     * @return the number of columns
+     */
+    public int getColumns();
+
+    /**
+     * Get the number of rows of the grid.
+     *
+     * @return the number of rows
+     */
+    public int getRows();
+}
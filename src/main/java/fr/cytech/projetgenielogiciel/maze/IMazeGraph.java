@@ -0,0 +1,60 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Interface for a read-only view of the topology of a maze.
+ *
+ * Cells are only known by their int ID, in [0, getCellCount()), and every
+ * method works on primitives, so that solvers written against this
+ * interface run unchanged and without boxing on any storage: a Maze
+ * whatever its storage mode, or a CsrGraph snapshot.
+ */
+public interface IMazeGraph {
+    /**
+     * Get the number of cells.
+     * Every valid ID is in [0, getCellCount()).
+     *
+     * @return the number of cells
+     */
+    public int getCellCount();
+
+    /**
+     * Get the x coordinate of a cell from its ID. The ID is not checked.
+     *
+     * @param id the ID of the cell
+     * @return the x coordinate of the cell
+     */
+    public int getCellX(int id);
+
+    /**
+     * Get the y coordinate of a cell from its ID. The ID is not checked.
+     *
+     * @param id the ID of the cell
+     * @return the y coordinate of the cell
+     */
+    public int getCellY(int id);
+
+    /**
+     * Writes the IDs of the cells a cell is connected to into a buffer.
+     *
+     * @param id        the ID of the cell
+     * @param neighbors the buffer to write the IDs to, at least 4 long
+     * @return the number of IDs written
+     */
+    public int getNeighbors(int id, int[] neighbors);
+
+    /**
+     * Calls an action on the ID of every cell a cell is connected to.
+     *
+     * @param id     the ID of the cell
+     * @param action the action to call on every neighbor
+     */
+    public default void forEachNeighbor(int id, IntConsumer action) {
+        int[] neighbors = new int[4];
+        int count = getNeighbors(id, neighbors);
+        for (int i = 0; i < count; i++) {
+            action.accept(neighbors[i]);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import java.time.Duration;
+
+/**
+ * Interface defining a process that runs one step at a time, such as a
+ * builder or a solver.
+ *
+ * step(int) and runFor(Duration) run many steps in a single loop and only
+ * report how many were done, so that callers like animations do not pay
+ * for a call and an update of the display per step.
+ */
+public interface ISteppable {
+    /**
+     * The number of steps runFor runs between two checks of the clock.
+     */
+    public static final int STEPS_PER_CLOCK_CHECK = 64;
+
+    /**
+     * Runs a single step of the process.
+     *
+     * @return Whether a step could be processed
+     */
+    public Boolean step();
+
+    /**
+     * Returns whether the process is done or if there is still work to be
+     * done.
+     *
+     * @return Whether the process has finished
+     */
+    public Boolean isFinished();
+
+    /**
+     * Runs up to a given number of steps, stopping early once the process
+     * is finished.
+     *
+     * @param count the maximum number of steps to run
+     * @return the number of steps that could be processed
+     */
+    public default int step(int count) {
+        int done = 0;
+        while (done < count && !isFinished()) {
+            if (!step()) {
+                break;
+            }
+            done++;
+        }
+        return done;
+    }
+
+    /**
+     * Runs steps until a given time has passed or the process is finished.
+     * The clock is only checked every STEPS_PER_CLOCK_CHECK steps, so this
+     * may run slightly over.
+     *
+     * @param budget the time to run steps for
+     * @return the number of steps that could be processed
+     */
+    public default int runFor(Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        int done = 0;
+        int batch;
+        do {
+            batch = step(STEPS_PER_CLOCK_CHECK);
+            done += batch;
+        } while (batch == STEPS_PER_CLOCK_CHECK && System.nanoTime() - deadline < 0);
+        return done;
+    }
+}
@@ -0,0 +1,322 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Class representing the connections of a grid, stored in place in a
+ * memory-mapped maze file.
+ *
+ * The file follows the MazeFormat, so a saved maze can be opened in O(1):
+ * the OS pages the walls in on demand, and every change is written back to
+ * the file. This lets mazes be larger than the heap.
+ * An undirected file stores 2 bits per cell, so a cell shares the bits of
+ * its connections with its neighbors and one-way connections are not
+ * supported. A directed file stores 4 bits per cell, like a BitGrid.
+ *
+ * The file is mapped in chunks of 1 GiB, as a single MappedByteBuffer cannot
+ * exceed 2 GiB. Cells are still numbered by int, so a maze holds at most
+ * Integer.MAX_VALUE cells, e.g. 46000x46000.
+ */
+public final class MappedGrid implements IConnectionGrid {
+    /**
+     * The size of a mapped chunk, as a power of 2.
+     */
+    private static final int CHUNK_SHIFT = 30;
+
+    /**
+     * Number of columns of the grid.
+     */
+    private final int columns;
+
+    /**
+     * Number of rows of the grid.
+     */
+    private final int rows;
+
+    /**
+     * Whether every cell owns 4 bits (true) or 2 bits (false).
+     */
+    private final boolean directed;
+
+    /**
+     * Number of bits used by a single cell.
+     */
+    private final int bitsPerCell;
+
+    /**
+     * Number of cells packed in a single long.
+     */
+    private final int cellsPerWord;
+
+    /**
+     * The mapped chunks of the file, header included.
+     */
+    private final MappedByteBuffer[] chunks;
+
+    /**
+     * Constructor for a grid over a mapped file.
+     *
+     * @param channel  the channel of the file, opened for reading and writing
+     * @param columns  the number of columns of the grid
+     * @param rows     the number of rows of the grid
+     * @param directed whether the walls use 4 bits per cell
+     * @throws IOException if the file could not be mapped
+     */
+    private MappedGrid(FileChannel channel, int columns, int rows, boolean directed) throws IOException {
+        this.columns = columns;
+        this.rows = rows;
+        this.directed = directed;
+        this.bitsPerCell = directed ? 4 : 2;
+        this.cellsPerWord = Long.SIZE / bitsPerCell;
+
+        long size = MazeFormat.HEADER_SIZE + MazeFormat.getWallsSize((long) columns * rows, directed);
+        int chunkCount = (int) ((size + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT);
+        this.chunks = new MappedByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            long length = Math.min(1L << CHUNK_SHIFT, size - start);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Creates a maze file with every wall closed, and maps it.
+     * Existing files are overwritten.
+     *
+     * @param file    the file to create
+     * @param columns the number of columns of the grid
+     * @param rows    the number of rows of the grid
+     * @return the grid mapped over the new file
+     * @throws IOException if the file could not be created or mapped
+     */
+    public static MappedGrid create(Path file, int columns, int rows) throws IOException {
+        if (columns <= 0 || rows <= 0 || (long) columns * rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid maze dimensions " + columns + "x" + rows);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(MazeFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            MazeFormat.putHeader(header, columns, rows, (short) 0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            // The walls start zeroed, i.e. closed
+            channel.truncate(MazeFormat.HEADER_SIZE);
+            long size = MazeFormat.HEADER_SIZE + MazeFormat.getWallsSize((long) columns * rows, false);
+            channel.write(ByteBuffer.allocate(1), size - 1);
+            return new MappedGrid(channel, columns, rows, false);
+        }
+    }
+
+    /**
+     * Maps an existing maze file.
+     * The storage mode flag and the state layer section of the file, if any,
+     * are ignored.
+     *
+     * @param file the file to map
+     * @return the grid mapped over the file
+     * @throws IOException if the file could not be mapped, or does not hold a
+     *                     valid maze
+     */
+    public static MappedGrid open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(MazeFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated maze file");
+                }
+            }
+            header.flip();
+
+            byte[] magic = new byte[MazeFormat.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MazeFormat.MAGIC)) {
+                throw new IOException("Not a maze file");
+            }
+            short version = header.getShort();
+            if (version != MazeFormat.VERSION) {
+                throw new IOException("Unsupported maze file version " + version);
+            }
+            short flags = header.getShort();
+            int columns = header.getInt();
+            int rows = header.getInt();
+            if (columns <= 0 || rows <= 0 || (long) columns * rows > Integer.MAX_VALUE) {
+                throw new IOException("Invalid maze dimensions " + columns + "x" + rows);
+            }
+            boolean directed = (flags & MazeFormat.FLAG_DIRECTED) != 0;
+            long size = MazeFormat.HEADER_SIZE + MazeFormat.getWallsSize((long) columns * rows, directed);
+            if (channel.size() < size) {
+                throw new IOException("Truncated maze file");
+            }
+            return new MappedGrid(channel, columns, rows, directed);
+        }
+    }
+
+    /**
+     * Get the word holding the bits of a cell.
+     *
+     * @param word the index of the word
+     * @return the word
+     */
+    private long getWord(long word) {
+        long offset = MazeFormat.HEADER_SIZE + word * Long.BYTES;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & ((1L << CHUNK_SHIFT) - 1)));
+    }
+
+    /**
+     * Replace the word holding the bits of a cell.
+     *
+     * @param word  the index of the word
+     * @param value the new value of the word
+     */
+    private void putWord(long word, long value) {
+        long offset = MazeFormat.HEADER_SIZE + word * Long.BYTES;
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putLong((int) (offset & ((1L << CHUNK_SHIFT) - 1)), value);
+    }
+
+    /**
+     * Get the bit storing a connection.
+     * In an undirected grid, RIGHT and DOWN are stored by the neighbor, as
+     * its LEFT and UP bits.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction of the connection
+     * @return the global position of the bit, or -1 if the neighbor is
+     *         outside the grid
+     */
+    private long bit(int index, Direction direction) {
+        if (directed) {
+            return (long) index * bitsPerCell + direction.ordinal();
+        }
+
+        switch (direction) {
+            case LEFT:
+                return (long) index * bitsPerCell;
+            case UP:
+                return (long) index * bitsPerCell + 1;
+            case RIGHT:
+                return index % columns == 0 ? -1 : (long) (index - 1) * bitsPerCell;
+            default:
+                return index < columns ? -1 : (long) (index - columns) * bitsPerCell + 1;
+        }
+    }
+
+    /**
+     * Opens the wall of a cell in a given direction.
+     * In an undirected grid, this also opens the wall of the neighbor.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to open
+     */
+    @Override
+    public void set(int index, Direction direction) {
+        long bit = bit(index, direction);
+        if (bit >= 0) {
+            long word = bit / Long.SIZE;
+            putWord(word, getWord(word) | (1L << (bit % Long.SIZE)));
+        }
+    }
+
+    /**
+     * Closes the wall of a cell in a given direction.
+     * In an undirected grid, this also closes the wall of the neighbor.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to close
+     */
+    @Override
+    public void clear(int index, Direction direction) {
+        long bit = bit(index, direction);
+        if (bit >= 0) {
+            long word = bit / Long.SIZE;
+            putWord(word, getWord(word) & ~(1L << (bit % Long.SIZE)));
+        }
+    }
+
+    /**
+     * Checks whether a cell is open in a given direction.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to check
+     * @return true if the cell is connected in the given direction
+     */
+    @Override
+    public boolean has(int index, Direction direction) {
+        long bit = bit(index, direction);
+        return bit >= 0 && (getWord(bit / Long.SIZE) & (1L << (bit % Long.SIZE))) != 0;
+    }
+
+    /**
+     * Get all of the connection bits of a cell at once.
+     * Bit n of the result is set if the cell is connected in the direction
+     * of ordinal n.
+     *
+     * @param index the index of the cell
+     * @return the 4 bit connection mask of the cell
+     */
+    @Override
+    public int getMask(int index) {
+        if (directed) {
+            return (int) ((getWord(index / cellsPerWord) >>> ((index % cellsPerWord) * bitsPerCell)) & 0xF);
+        }
+
+        int mask = 0;
+        for (Direction direction : Direction.values()) {
+            if (has(index, direction)) {
+                mask |= 1 << direction.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Whether a cell may be connected to a neighbor without the neighbor
+     * being connected back. Only directed files support it.
+     *
+     * @return true if the file stores 4 bits per cell
+     */
+    @Override
+    public boolean supportsOneWay() {
+        return directed;
+    }
+
+    /**
+     * Get the number of columns of the grid.
+     *
+     * @return the number of columns
+     */
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of rows of the grid.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Writes every change back to the file.
+     * The OS eventually does it by itself, this only forces it.
+     */
+    public void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package fr.cytech.projetgenielogiciel.maze;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Arrays;
-
-import javafx.scene.paint.Color;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class representing a maze.
  *
  * A maze is a 2D grid of cells, made out of cells.
+ * Java serialization of a maze goes through the MazeFormat, so that the
+ * connections take 2 bits per cell in saved builders and solvers.
  */
-public class Maze implements Serializable {
+public class Maze implements IMazeGraph, Serializable {
     /**
      * The width of the maze.
      */
@@ -22,9 +30,10 @@ public class Maze implements Serializable {
     private final Integer height;
 
     /**
-     * The cells of the maze.
+     * The default state of every cell of the maze.
+     * Cells themselves are only views over a layer, see Cell.
      */
-    private final Cell[][] cells;
+    private final StateLayer stateLayer;
 
     /**
      * A record holding an (X, Y) position vector in the maze.
@@ -32,6 +41,30 @@ public class Maze implements Serializable {
     public record Position(Integer x, Integer y) implements Serializable {
     };
 
+    /**
+     * The ways a maze can store the connections between its cells.
+     */
+    public enum StorageMode {
+        /**
+         * Connections are stored in an AdjacencyList, by cell ID.
+         */
+        ADJACENCY_LIST,
+        /**
+         * Connections are stored as packed bits in a BitGrid, by position.
+         */
+        BIT_GRID,
+        /**
+         * Connections are stored as packed bits in a TiledGrid, whose tiles
+         * are only allocated once a cell in them is connected.
+         */
+        TILED,
+        /**
+         * Connections are stored as packed bits in a memory-mapped maze file,
+         * see MappedGrid. Such mazes are made with createMapped or openMapped.
+         */
+        MAPPED;
+    }
+
     /**
      * Adjacency list for the maze.
      *
@@ -39,36 +72,151 @@ public class Maze implements Serializable {
      * does not provide any sense of directionality by itself.
      * It is nonetheless accessible read-only for debugging purposes, or if
      * an algorithm needs it and it is preferable to not rely on topology.
+     * Null unless the maze uses the ADJACENCY_LIST storage mode.
+     */
+    private final AdjacencyList adjacencyList;
+
+    /**
+     * Packed connection bits for the maze, in memory or in a mapped file.
+     * Null if the maze uses the ADJACENCY_LIST storage mode.
      */
-    private final AdjacencyList adjacencyList = new AdjacencyList();
+    private final IConnectionGrid grid;
 
     /**
      * Constructor for a Maze, without specifying the cells.
+     * The connections are stored in an adjacency list.
      *
      * @param width  the width of the maze (number of cells)
      * @param height the height of the maze (number of cells)
      */
     public Maze(Integer width, Integer height) {
+        this(width, height, StorageMode.ADJACENCY_LIST);
+    }
+
+    /**
+     * Constructor for a Maze, without specifying the cells.
+     *
+     * @param width  the width of the maze (number of cells)
+     * @param height the height of the maze (number of cells)
+     * @param mode   how the connections between cells should be stored, not
+     *               MAPPED
+     */
+    public Maze(Integer width, Integer height, StorageMode mode) {
+        this(width, height, mode, new StateLayer(width * height));
+    }
+
+    /**
+     * Constructor for a Maze, with an existing default state layer.
+     *
+     * @param width      the width of the maze (number of cells)
+     * @param height     the height of the maze (number of cells)
+     * @param mode       how the connections between cells should be stored
+     * @param stateLayer the default state layer, covering width * height cells
+     */
+    Maze(Integer width, Integer height, StorageMode mode, StateLayer stateLayer) {
+        if (mode == StorageMode.MAPPED) {
+            throw new IllegalArgumentException("Mapped mazes are made with createMapped or openMapped");
+        }
         this.width = width - 1;
         this.height = height - 1;
-        this.cells = new Cell[width][height];
-
-        for (Integer y = 0; y < height; y++) {
-            for (Integer x = 0; x < width; x++) {
-                cells[x][y] = new Cell();
-            }
+        this.stateLayer = stateLayer;
+        this.adjacencyList = mode == StorageMode.ADJACENCY_LIST ? new AdjacencyList() : null;
+        if (mode == StorageMode.BIT_GRID) {
+            this.grid = new BitGrid(width, height);
+        } else if (mode == StorageMode.TILED) {
+            this.grid = new TiledGrid(width, height);
+        } else {
+            this.grid = null;
         }
     }
 
     /**
-     * Constructor for a Maze, with the cells already created.
+     * Constructor for a Maze over an existing connection grid.
+     *
+     * @param grid the connections of the maze
+     */
+    private Maze(IConnectionGrid grid) {
+        this.width = grid.getColumns() - 1;
+        this.height = grid.getRows() - 1;
+        this.stateLayer = new StateLayer(grid.getColumns() * grid.getRows());
+        this.adjacencyList = null;
+        this.grid = grid;
+    }
+
+    /**
+     * Creates a maze stored in a new memory-mapped file, with every wall
+     * closed. The maze is then edited in place, see MappedGrid.
+     * One-way connections are not supported by such a maze.
+     *
+     * @param file   the file to create, overwritten if it exists
+     * @param width  the width of the maze (number of cells)
+     * @param height the height of the maze (number of cells)
+     * @return the maze
+     * @throws IOException if the file could not be created
+     */
+    public static Maze createMapped(Path file, Integer width, Integer height) throws IOException {
+        return new Maze(MappedGrid.create(file, width, height));
+    }
+
+    /**
+     * Opens a maze file in place, by memory-mapping it.
+     * This does not read the walls, so it takes the same time whatever the
+     * size of the maze. Changes to the maze are written to the file.
+     *
+     * @param file the maze file, see MazeFormat
+     * @return the maze
+     * @throws IOException if the file could not be mapped, or does not hold a
+     *                     valid maze
+     */
+    public static Maze openMapped(Path file) throws IOException {
+        return new Maze(MappedGrid.open(file));
+    }
+
+    /**
+     * Get the ID of the cell at a given position.
+     * IDs are relative to the maze, and simply number the cells in row-major
+     * order: x + y * (width + 1). This is also the index used by the connection grid.
+     * The position is not checked.
+     *
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the ID of the cell
+     */
+    public int getCellId(int x, int y) {
+        return x + y * (width + 1);
+    }
+
+    /**
+     * Get the x coordinate of a cell from its ID. The ID is not checked.
+     *
+     * @param id the ID of the cell
+     * @return the x coordinate of the cell
+     */
+    @Override
+    public int getCellX(int id) {
+        return id % (width + 1);
+    }
+
+    /**
+     * Get the y coordinate of a cell from its ID. The ID is not checked.
      *
-     * @param cells the cells of the maze
+     * @param id the ID of the cell
+     * @return the y coordinate of the cell
      */
-    public Maze(Cell[][] cells) {
-        this.width = cells.length;
-        this.height = cells[0].length;
-        this.cells = cells;
+    @Override
+    public int getCellY(int id) {
+        return id / (width + 1);
+    }
+
+    /**
+     * Get the number of cells in the maze.
+     * Every valid ID is in [0, getCellCount()).
+     *
+     * @return the number of cells
+     */
+    @Override
+    public int getCellCount() {
+        return (width + 1) * (height + 1);
     }
 
     /**
@@ -80,14 +228,11 @@ public class Maze implements Serializable {
      * @param y the y coordinate of the cell
      * @return true if the cell is valid, false otherwise
      */
-    public boolean isValidCell(Integer x, Integer y) {
+    public boolean isValidCell(int x, int y) {
         if (x < 0 || x > width || y < 0 || y > height) {
             return false;
         }
-        if (cells[x][y] == null) {
-            return false;
-        }
-        return cells[x][y].isValid();
+        return true;
     }
 
     /**
@@ -98,29 +243,51 @@ public class Maze implements Serializable {
      * @param sourceY   the y coordinate of the source cell
      * @param direction the direction to connect to
      */
-    public void connect(Integer sourceX, Integer sourceY, Direction direction) {
-        Integer targetX = sourceX + direction.getX();
-        Integer targetY = sourceY + direction.getY();
+    public void connect(int sourceX, int sourceY, Direction direction) {
+        int targetX = sourceX + direction.getX();
+        int targetY = sourceY + direction.getY();
 
         if (isValidCell(targetX, targetY)) {
-            adjacencyList.addEdge(cells[sourceX][sourceY].getId(), cells[targetX][targetY].getId());
+            if (grid != null) {
+                grid.set(getCellId(sourceX, sourceY), direction);
+                grid.set(getCellId(targetX, targetY), direction.opposite());
+            } else {
+                adjacencyList.addEdge(getCellId(sourceX, sourceY), getCellId(targetX, targetY));
+            }
+        }
+    }
+
+    /**
+     * Checks that the storage of the maze supports one-way connections.
+     *
+     * @throws UnsupportedOperationException if it does not
+     */
+    private void checkOneWaySupport() {
+        if (grid != null && !grid.supportsOneWay()) {
+            throw new UnsupportedOperationException("This maze does not support one-way connections");
         }
     }
 
     /**
      * Connects two cells in the maze, unidirectionally.
      * Silently ignores the connection if the target cell is invalid.
+     * Not supported by undirected MAPPED mazes.
      *
      * @param sourceX   the x coordinate of the source cell
      * @param sourceY   the y coordinate of the source cell
      * @param direction the direction to connect to
      */
-    public void connectOneWay(Integer sourceX, Integer sourceY, Direction direction) {
-        Integer targetX = sourceX + direction.getX();
-        Integer targetY = sourceY + direction.getY();
+    public void connectOneWay(int sourceX, int sourceY, Direction direction) {
+        checkOneWaySupport();
+        int targetX = sourceX + direction.getX();
+        int targetY = sourceY + direction.getY();
 
         if (isValidCell(targetX, targetY)) {
-            adjacencyList.addEdgeOneWay(cells[sourceX][sourceY].getId(), cells[targetX][targetY].getId());
+            if (grid != null) {
+                grid.set(getCellId(sourceX, sourceY), direction);
+            } else {
+                adjacencyList.addEdgeOneWay(getCellId(sourceX, sourceY), getCellId(targetX, targetY));
+            }
         }
     }
 
@@ -132,29 +299,40 @@ public class Maze implements Serializable {
      * @param sourceY   the y coordinate of the source cell
      * @param direction the direction to disconnect from
      */
-    public void disconnect(Integer sourceX, Integer sourceY, Direction direction) {
-        Integer targetX = sourceX + direction.getX();
-        Integer targetY = sourceY + direction.getY();
+    public void disconnect(int sourceX, int sourceY, Direction direction) {
+        int targetX = sourceX + direction.getX();
+        int targetY = sourceY + direction.getY();
 
         if (isValidCell(targetX, targetY)) {
-            adjacencyList.removeEdge(cells[sourceX][sourceY].getId(), cells[targetX][targetY].getId());
+            if (grid != null) {
+                grid.clear(getCellId(sourceX, sourceY), direction);
+                grid.clear(getCellId(targetX, targetY), direction.opposite());
+            } else {
+                adjacencyList.removeEdge(getCellId(sourceX, sourceY), getCellId(targetX, targetY));
+            }
         }
     }
 
     /**
      * Disconnects two cells in the maze, unidirectionally.
      * Silently ignores the disconnection if the target cell is invalid.
+     * Not supported by undirected MAPPED mazes.
      *
      * @param sourceX   the x coordinate of the source cell
      * @param sourceY   the y coordinate of the source cell
      * @param direction the direction to disconnect from
      */
-    public void disconnectOneWay(Integer sourceX, Integer sourceY, Direction direction) {
-        Integer targetX = sourceX + direction.getX();
-        Integer targetY = sourceY + direction.getY();
+    public void disconnectOneWay(int sourceX, int sourceY, Direction direction) {
+        checkOneWaySupport();
+        int targetX = sourceX + direction.getX();
+        int targetY = sourceY + direction.getY();
 
         if (isValidCell(targetX, targetY)) {
-            adjacencyList.removeEdgeOneWay(cells[sourceX][sourceY].getId(), cells[targetX][targetY].getId());
+            if (grid != null) {
+                grid.clear(getCellId(sourceX, sourceY), direction);
+            } else {
+                adjacencyList.removeEdgeOneWay(getCellId(sourceX, sourceY), getCellId(targetX, targetY));
+            }
         }
     }
 
@@ -167,16 +345,98 @@ public class Maze implements Serializable {
      * @return true if the cell has a connection in the given direction, false
      *         otherwise
      */
-    public boolean hasConnection(Integer x, Integer y, Direction direction) {
-        Integer targetX = x + direction.getX();
-        Integer targetY = y + direction.getY();
+    public boolean hasConnection(int x, int y, Direction direction) {
+        int targetX = x + direction.getX();
+        int targetY = y + direction.getY();
 
         if (isValidCell(targetX, targetY)) {
-            return adjacencyList.hasEdge(cells[x][y].getId(), cells[targetX][targetY].getId());
+            if (grid != null) {
+                return grid.has(getCellId(x, y), direction);
+            }
+            return adjacencyList.hasEdge(getCellId(x, y), getCellId(targetX, targetY));
         }
         return false;
     }
 
+    /**
+     * Get the IDs of the cells a cell is connected to.
+     * This works regardless of the storage mode of the maze, and should be
+     * preferred over going through the adjacency list directly.
+     *
+     * @param id the ID of the cell
+     * @return the IDs of the connected cells
+     */
+    public List<Integer> getNeighbors(Integer id) {
+        if (grid == null) {
+            return adjacencyList.getNeighbors(id);
+        }
+
+        if (id == null || id < 0 || id >= getCellCount()) {
+            return List.of();
+        }
+
+        int x = getCellX(id);
+        int y = getCellY(id);
+        List<Integer> neighbors = new ArrayList<>(4);
+        int mask = grid.getMask(id);
+        for (Direction direction : Direction.values()) {
+            if ((mask & (1 << direction.ordinal())) != 0 && isValidCell(x + direction.getX(), y + direction.getY())) {
+                neighbors.add(getCellId(x + direction.getX(), y + direction.getY()));
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Writes the IDs of the cells a cell is connected to into a buffer.
+     * Unlike getNeighbors, this does not allocate anything unless in the
+     * ADJACENCY_LIST mode, which makes it the preferred way to explore the
+     * maze in loops.
+     *
+     * @param id        the ID of the cell
+     * @param neighbors the buffer to write the IDs to, at least 4 long
+     * @return the number of IDs written
+     */
+    @Override
+    public int getNeighbors(int id, int[] neighbors) {
+        if (grid == null) {
+            // The adjacency list may hold duplicate edges, which are skipped
+            int count = 0;
+            for (Integer neighbor : adjacencyList.getNeighbors(id)) {
+                boolean duplicate = false;
+                for (int i = 0; i < count; i++) {
+                    duplicate |= neighbors[i] == neighbor;
+                }
+                if (!duplicate) {
+                    neighbors[count++] = neighbor;
+                }
+            }
+            return count;
+        }
+
+        int x = getCellX(id);
+        int y = getCellY(id);
+        int mask = grid.getMask(id);
+        int count = 0;
+        for (Direction direction : Direction.values()) {
+            if ((mask & (1 << direction.ordinal())) != 0 && isValidCell(x + direction.getX(), y + direction.getY())) {
+                neighbors[count++] = getCellId(x + direction.getX(), y + direction.getY());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Takes a frozen snapshot of the connections of the maze.
+     * The snapshot only holds two int arrays, is safe to share between
+     * threads, and is meant to be read by solvers, see ISolver.setGraph.
+     *
+     * @return the snapshot of the maze
+     */
+    public CsrGraph toCsrGraph() {
+        return new CsrGraph(this);
+    }
+
     /**
      * ToString implementation.
      * Formatted as a list of coordinates followed by their connections
@@ -238,7 +498,7 @@ public class Maze implements Serializable {
         int maxLength = 0;
         for (int x = 0; x <= width; x++) {
             for (int y = 0; y <= height; y++) {
-                int idLength = cells[x][y].getId().toString().length();
+                int idLength = String.valueOf(getCellId(x, y)).length();
                 if (idLength > maxLength) {
                     maxLength = idLength;
                 }
@@ -253,7 +513,7 @@ public class Maze implements Serializable {
             StringBuilder cellRow = new StringBuilder();
             for (int x = 0; x <= width; x++) {
                 // Pad the cell ID to align with maxLength
-                String id = String.format("%0" + maxLength + "d", cells[x][y].getId());
+                String id = String.format("%0" + maxLength + "d", getCellId(x, y));
                 cellRow.append(id);
 
                 // Check for horizontal connection to the next cell
@@ -312,57 +572,73 @@ public class Maze implements Serializable {
      */
     public Cell getCell(Integer x, Integer y) {
         if (isValidCell(x, y)) {
-            return cells[x][y];
+            return new Cell(stateLayer, getCellId(x, y));
         }
         return null;
     }
 
+    /**
+     * Get the state of a cell in the default layer. The ID is not checked.
+     *
+     * @param id the ID of the cell
+     * @return the state of the cell
+     */
+    public CellState getState(int id) {
+        return stateLayer.getState(id);
+    }
+
+    /**
+     * Set the state of a cell in the default layer. The ID is not checked.
+     *
+     * @param id    the ID of the cell
+     * @param state the new state of the cell
+     */
+    public void setState(int id, CellState state) {
+        stateLayer.setState(id, state);
+    }
+
+    /**
+     * Set the state of every cell in the default layer at once.
+     *
+     * @param state the new state of every cell
+     */
+    public void fillStates(CellState state) {
+        stateLayer.fill(state);
+    }
+
     /**
      * Reset the color of every cell in the maze.
      */
     public void resetColors() {
-        for (Cell[] cells : this.cells) {
-            for (Cell cell : cells) {
-                cell.setColor(Color.WHITE);
-            }
-        }
+        fillStates(CellState.UNPROCESSED);
     }
 
     /**
      * Finds the coordinates of a cell.
+     * This is a direct computation from the ID of the cell.
      *
      * @param cell the cell in the maze
      * @return [x,y] the coordinates of the cell
      */
     public Position findCoordinates(Cell cell) {
-        if (cell == null)
+        if (cell == null || cell.getId() < 0 || cell.getId() >= getCellCount())
             return null;
 
-        for (int x = 0; x <= this.getWidth(); x++) {
-            for (int y = 0; y <= this.getHeight(); y++) {
-                if (this.getCell(x, y) != null && this.getCell(x, y).equals(cell)) {
-                    return new Position(x, y);
-                }
-            }
-        }
-        return null;
+        return new Position(getCellX(cell.getId()), getCellY(cell.getId()));
     }
 
     /**
      * Find a cell in the maze by its ID.
+     * This is a direct lookup, see getCellId.
      *
      * @param id the id of the cell
      * @return the cell corresponding to the id
      */
     public Cell findCellById(Integer id) {
-        for (int x = 0; x <= this.getWidth(); x++) {
-            for (int y = 0; y <= this.getHeight(); y++) {
-                if (this.getCell(x, y) != null && this.getCell(x, y).getId() == id) {
-                    return this.getCell(x, y);
-                }
-            }
-        }
-        return null;
+        if (id == null || id < 0 || id >= getCellCount())
+            return null;
+
+        return getCell(getCellX(id), getCellY(id));
     }
 
     /**
@@ -376,8 +652,8 @@ public class Maze implements Serializable {
         int result = 1;
         result = prime * result + ((width == null) ? 0 : width.hashCode());
         result = prime * result + ((height == null) ? 0 : height.hashCode());
-        result = prime * result + Arrays.deepHashCode(cells);
         result = prime * result + ((adjacencyList == null) ? 0 : adjacencyList.hashCode());
+        result = prime * result + ((grid == null) ? 0 : grid.hashCode());
         return result;
     }
 
@@ -406,13 +682,16 @@ public class Maze implements Serializable {
                 return false;
         } else if (!height.equals(other.height))
             return false;
-        if (!Arrays.deepEquals(cells, other.cells))
-            return false;
         if (adjacencyList == null) {
             if (other.adjacencyList != null)
                 return false;
         } else if (!adjacencyList.equals(other.adjacencyList))
             return false;
+        if (grid == null) {
+            if (other.grid != null)
+                return false;
+        } else if (!grid.equals(other.grid))
+            return false;
         return true;
     }
 
@@ -436,19 +715,148 @@ public class Maze implements Serializable {
 
     /**
      * Get the cells of the maze.
+     * The cells are created on demand, prefer getCell or the state accessors
+     * on large mazes.
      *
      * @return the cells of the maze
      */
     public Cell[][] getCells() {
+        Cell[][] cells = new Cell[width + 1][height + 1];
+        for (int x = 0; x <= width; x++) {
+            for (int y = 0; y <= height; y++) {
+                cells[x][y] = new Cell(stateLayer, getCellId(x, y));
+            }
+        }
         return cells;
     }
 
     /**
      * Get the adjacency list of the maze.
+     * Unless in the ADJACENCY_LIST storage mode, a copy is built from the grid, so
+     * changes to it will not be reflected in the maze.
      *
      * @return the adjacency list of the maze
      */
     public AdjacencyList getAdjacencyList() {
-        return adjacencyList;
+        if (grid == null) {
+            return adjacencyList;
+        }
+
+        AdjacencyList copy = new AdjacencyList();
+        for (int x = 0; x <= width; x++) {
+            for (int y = 0; y <= height; y++) {
+                for (Direction direction : Direction.values()) {
+                    if (hasConnection(x, y, direction)) {
+                        copy.addEdgeOneWay(getCellId(x, y),
+                                getCellId(x + direction.getX(), y + direction.getY()));
+                    }
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Get the default state layer of the maze.
+     * This is the layer used by cells obtained through getCell, and by
+     * builders and solvers that were not given a layer of their own.
+     *
+     * @return the default state layer
+     */
+    public StateLayer getStateLayer() {
+        return stateLayer;
+    }
+
+    /**
+     * Get the storage mode of the maze.
+     *
+     * @return how the connections of the maze are stored
+     */
+    public StorageMode getStorageMode() {
+        if (grid == null) {
+            return StorageMode.ADJACENCY_LIST;
+        }
+        if (grid instanceof MappedGrid) {
+            return StorageMode.MAPPED;
+        }
+        return grid instanceof TiledGrid ? StorageMode.TILED : StorageMode.BIT_GRID;
+    }
+
+    /**
+     * Get the bit grid of the maze.
+     *
+     * @return the bit grid of the maze, or null unless in the BIT_GRID mode
+     */
+    public BitGrid getBitGrid() {
+        return grid instanceof BitGrid ? (BitGrid) grid : null;
+    }
+
+    /**
+     * Get the connection grid of the maze, whatever it is stored in.
+     *
+     * @return the connection grid of the maze, or null in the ADJACENCY_LIST
+     *         mode
+     */
+    public IConnectionGrid getConnectionGrid() {
+        return grid;
+    }
+
+    /**
+     * Replaces the maze by its compact form when it is serialized.
+     *
+     * @return the serialized form of the maze
+     * @throws ObjectStreamException if the maze could not be encoded
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        return new SerializedForm(this);
+    }
+
+    /**
+     * The form a maze takes in a Java serialization stream.
+     * The connections are encoded with the MazeFormat, while the default
+     * state layer is kept as an object, so that builders and solvers sharing
+     * it with the maze still share it once deserialized.
+     */
+    private static final class SerializedForm implements Serializable {
+        /**
+         * The connections of the maze, in the MazeFormat.
+         */
+        private final byte[] data;
+
+        /**
+         * The default state layer of the maze.
+         */
+        private final StateLayer stateLayer;
+
+        /**
+         * Constructor for the serialized form of a maze.
+         *
+         * @param maze the maze to encode
+         * @throws ObjectStreamException if the maze could not be encoded
+         */
+        SerializedForm(Maze maze) throws ObjectStreamException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                MazeFormat.write(maze, Channels.newChannel(out), false);
+            } catch (IOException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+            this.data = out.toByteArray();
+            this.stateLayer = maze.stateLayer;
+        }
+
+        /**
+         * Decodes the maze once deserialized.
+         *
+         * @return the maze
+         * @throws ObjectStreamException if the data is not a valid maze
+         */
+        private Object readResolve() throws ObjectStreamException {
+            try {
+                return MazeFormat.read(Channels.newChannel(new ByteArrayInputStream(data)), stateLayer);
+            } catch (IOException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+        }
     }
 }
@@ -0,0 +1,368 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads and writes mazes in a compact, versioned binary format.
+ *
+ * Every value is little-endian. A file is made of:
+ * <ul>
+ * <li>a header of HEADER_SIZE bytes: the MAGIC bytes, the format version
+ * (short), the flags (short), the width and the height of the maze in cells
+ * (int each), then zeroes reserved for later versions;</li>
+ * <li>the walls, packed in longs in cell ID order. If the maze is
+ * undirected, every cell uses 2 bits: bit 0 is set if the cell is connected
+ * to (x + 1, y), bit 1 if it is connected to (x, y + 1). If the maze has
+ * one-way connections (FLAG_DIRECTED), every cell uses 4 bits, one per
+ * direction in the order of Direction.ordinal(), like a BitGrid;</li>
+ * <li>if FLAG_STATES is set, the state of every cell of a layer, one byte
+ * per cell in cell ID order.</li>
+ * </ul>
+ * A 1000x1000 undirected maze thus takes about 250 KB.
+ * Data goes through NIO channels in fixed size chunks, so a maze never has
+ * to be copied in memory as a whole.
+ */
+public final class MazeFormat {
+    /**
+     * The bytes every maze file starts with.
+     */
+    public static final byte[] MAGIC = { 'M', 'A', 'Z', 'E' };
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The size of the header, in bytes. The walls start right after it.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * Flag set if the walls are stored with 4 bits per cell.
+     */
+    public static final short FLAG_DIRECTED = 1;
+
+    /**
+     * Flag set if a state layer follows the walls.
+     */
+    public static final short FLAG_STATES = 2;
+
+    /**
+     * Flag set if the maze used the ADJACENCY_LIST storage mode.
+     */
+    public static final short FLAG_ADJACENCY_LIST = 4;
+
+    /**
+     * Flag set if the maze used the TILED storage mode.
+     */
+    public static final short FLAG_TILED = 8;
+
+    /**
+     * The size of the chunks data is transferred in.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * This class only has static methods.
+     */
+    private MazeFormat() {
+    }
+
+    /**
+     * Get the size of the wall section of a maze.
+     *
+     * @param cellCount the number of cells of the maze
+     * @param directed  whether the walls use 4 bits per cell
+     * @return the size of the walls, in bytes
+     */
+    public static long getWallsSize(long cellCount, boolean directed) {
+        long cellsPerWord = directed ? Long.SIZE / 4 : Long.SIZE / 2;
+        return (cellCount + cellsPerWord - 1) / cellsPerWord * Long.BYTES;
+    }
+
+    /**
+     * Puts the header of a maze file in a buffer.
+     *
+     * @param buffer  the buffer, little-endian, with at least HEADER_SIZE bytes
+     *                remaining
+     * @param columns the width of the maze
+     * @param rows    the height of the maze
+     * @param flags   the flags of the file
+     */
+    public static void putHeader(ByteBuffer buffer, int columns, int rows, short flags) {
+        int start = buffer.position();
+        buffer.put(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort(flags);
+        buffer.putInt(columns);
+        buffer.putInt(rows);
+        buffer.put(new byte[HEADER_SIZE - (buffer.position() - start)]);
+    }
+
+    /**
+     * Writes a maze to a channel.
+     *
+     * @param maze       the maze to write
+     * @param channel    the channel to write to
+     * @param withStates whether to write the default state layer of the maze
+     * @throws IOException if the channel could not be written to
+     */
+    public static void write(Maze maze, WritableByteChannel channel, boolean withStates) throws IOException {
+        int columns = maze.getWidth() + 1;
+        int rows = maze.getHeight() + 1;
+        int cellCount = maze.getCellCount();
+        boolean directed = isDirected(maze);
+
+        short flags = 0;
+        flags |= directed ? FLAG_DIRECTED : 0;
+        flags |= withStates ? FLAG_STATES : 0;
+        flags |= maze.getStorageMode() == Maze.StorageMode.ADJACENCY_LIST ? FLAG_ADJACENCY_LIST : 0;
+        flags |= maze.getStorageMode() == Maze.StorageMode.TILED ? FLAG_TILED : 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        putHeader(buffer, columns, rows, flags);
+
+        // Pack the walls, flushing every full chunk
+        int bitsPerCell = directed ? 4 : 2;
+        int cellsPerWord = Long.SIZE / bitsPerCell;
+        long word = 0;
+        for (int id = 0; id < cellCount; id++) {
+            int mask = getMask(maze, id);
+            long bits = directed ? mask
+                    : ((mask >>> Direction.LEFT.ordinal()) & 1) | (((mask >>> Direction.UP.ordinal()) & 1) << 1);
+            word |= bits << ((id % cellsPerWord) * bitsPerCell);
+
+            if (id % cellsPerWord == cellsPerWord - 1 || id == cellCount - 1) {
+                flushIfFull(channel, buffer, Long.BYTES);
+                buffer.putLong(word);
+                word = 0;
+            }
+        }
+
+        if (withStates) {
+            StateLayer layer = maze.getStateLayer();
+            for (int id = 0; id < cellCount; id++) {
+                flushIfFull(channel, buffer, 1);
+                buffer.put(layer.getState(id).toByte());
+            }
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a maze from a channel.
+     * If the file holds a state layer, it becomes the default layer of the
+     * maze.
+     *
+     * @param channel the channel to read from
+     * @return the maze
+     * @throws IOException if the channel could not be read, or does not hold
+     *                     a valid maze
+     */
+    public static Maze read(ReadableByteChannel channel) throws IOException {
+        return read(channel, null);
+    }
+
+    /**
+     * Reads a maze from a channel, with a given default state layer.
+     *
+     * @param channel the channel to read from
+     * @param layer   the default state layer of the maze, or null to create
+     *                one. If the file holds a state layer, it is read into it.
+     * @return the maze
+     * @throws IOException if the channel could not be read, or does not hold
+     *                     a valid maze
+     */
+    static Maze read(ReadableByteChannel channel, StateLayer layer) throws IOException {
+        // The size of the file is known for seekable channels, see below
+        long available = -1;
+        if (channel instanceof SeekableByteChannel seekable) {
+            available = seekable.size() - seekable.position();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+
+        fill(channel, buffer, HEADER_SIZE);
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                throw new IOException("Not a maze file");
+            }
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported maze file version " + version);
+        }
+        short flags = buffer.getShort();
+        int columns = buffer.getInt();
+        int rows = buffer.getInt();
+        if (columns <= 0 || rows <= 0 || (long) columns * rows > Integer.MAX_VALUE) {
+            throw new IOException("Invalid maze dimensions " + columns + "x" + rows);
+        }
+        buffer.position(HEADER_SIZE);
+        boolean directed = (flags & FLAG_DIRECTED) != 0;
+        boolean withStates = (flags & FLAG_STATES) != 0;
+
+        // Reject a forged header before allocating anything for it
+        long cellCount = (long) columns * rows;
+        long expected = HEADER_SIZE + getWallsSize(cellCount, directed) + (withStates ? cellCount : 0);
+        if (available >= 0 && available < expected) {
+            throw new EOFException("Truncated maze file: " + expected + " bytes expected, " + available + " found");
+        }
+
+        Maze.StorageMode mode = Maze.StorageMode.BIT_GRID;
+        if ((flags & FLAG_ADJACENCY_LIST) != 0) {
+            mode = Maze.StorageMode.ADJACENCY_LIST;
+        } else if ((flags & FLAG_TILED) != 0) {
+            mode = Maze.StorageMode.TILED;
+        }
+        if (layer == null) {
+            layer = new StateLayer(columns * rows);
+        } else if (layer.getCellCount() != columns * rows) {
+            throw new IOException("The state layer does not match the maze");
+        }
+        Maze maze = new Maze(columns, rows, mode, layer);
+
+        // Unpack the walls
+        int bitsPerCell = directed ? 4 : 2;
+        int cellsPerWord = Long.SIZE / bitsPerCell;
+        long word = 0;
+        for (int id = 0; id < cellCount; id++) {
+            if (id % cellsPerWord == 0) {
+                fill(channel, buffer, Long.BYTES);
+                word = buffer.getLong();
+            }
+            int bits = (int) (word >>> ((id % cellsPerWord) * bitsPerCell));
+            int x = maze.getCellX(id);
+            int y = maze.getCellY(id);
+
+            if (directed) {
+                for (Direction direction : Direction.values()) {
+                    if ((bits & (1 << direction.ordinal())) != 0) {
+                        maze.connectOneWay(x, y, direction);
+                    }
+                }
+            } else {
+                if ((bits & 1) != 0) {
+                    maze.connect(x, y, Direction.LEFT);
+                }
+                if ((bits & 2) != 0) {
+                    maze.connect(x, y, Direction.UP);
+                }
+            }
+        }
+
+        if (withStates) {
+            int stateCount = CellState.values().length;
+            for (int id = 0; id < cellCount; id++) {
+                fill(channel, buffer, 1);
+                byte state = buffer.get();
+                if (state < 0 || state >= stateCount) {
+                    throw new IOException("Invalid cell state " + state + " for cell " + id);
+                }
+                layer.setState(id, CellState.fromByte(state));
+            }
+        }
+
+        return maze;
+    }
+
+    /**
+     * Checks whether a maze has one-way connections.
+     *
+     * @param maze the maze to check
+     * @return true if some connection does not have its opposite
+     */
+    private static boolean isDirected(Maze maze) {
+        for (int y = 0; y <= maze.getHeight(); y++) {
+            for (int x = 0; x <= maze.getWidth(); x++) {
+                if (x < maze.getWidth() && maze.hasConnection(x, y, Direction.LEFT) != maze
+                        .hasConnection(x + 1, y, Direction.RIGHT)) {
+                    return true;
+                }
+                if (y < maze.getHeight() && maze.hasConnection(x, y, Direction.UP) != maze
+                        .hasConnection(x, y + 1, Direction.DOWN)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the connections of a cell, as a BitGrid mask.
+     *
+     * @param maze the maze
+     * @param id   the ID of the cell
+     * @return bit n is set if the cell is connected in the direction of
+     *         ordinal n
+     */
+    private static int getMask(Maze maze, int id) {
+        if (maze.getConnectionGrid() != null) {
+            return maze.getConnectionGrid().getMask(id);
+        }
+
+        int x = maze.getCellX(id);
+        int y = maze.getCellY(id);
+        int mask = 0;
+        for (Direction direction : Direction.values()) {
+            if (maze.hasConnection(x, y, direction)) {
+                mask |= 1 << direction.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Writes the content of a buffer to a channel if it cannot hold some
+     * more bytes. The buffer is left ready to be written to.
+     *
+     * @param channel the channel to write to
+     * @param buffer  the buffer, in write mode
+     * @param needed  the number of bytes about to be put in the buffer
+     * @throws IOException if the channel could not be written to
+     */
+    private static void flushIfFull(WritableByteChannel channel, ByteBuffer buffer, int needed)
+            throws IOException {
+        if (buffer.remaining() < needed) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads from a channel until a buffer holds some bytes. The buffer is left
+     * ready to be read from.
+     *
+     * @param channel the channel to read from
+     * @param buffer  the buffer, in read mode
+     * @param needed  the number of bytes about to be read from the buffer
+     * @throws IOException if the channel could not be read, or ended early
+     */
+    private static void fill(ReadableByteChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated maze file");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,132 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Class representing the display state of every cell of a maze.
+ *
+ * A state layer is separate from the topology of the maze: every maze has
+ * a default layer, but a builder or a solver may be given its own layer so
+ * that several of them can run on the same maze at once without
+ * overwriting each other's progress. States are stored as a single byte
+ * per cell, indexed by cell ID, in pages of PAGE_SIZE cells. A page is only
+ * allocated once one of its cells leaves the UNPROCESSED state, so that a
+ * partially explored maze only pays for the parts that were explored.
+ */
+public final class StateLayer implements Serializable {
+    /**
+     * The number of cells of a page, as a power of 2.
+     */
+    private static final int PAGE_SHIFT = 12;
+
+    /**
+     * The number of cells of a page.
+     */
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    /**
+     * The state of every cell, by page then by cell ID in the page.
+     * A page is null while every cell in it is unprocessed.
+     */
+    private final byte[][] pages;
+
+    /**
+     * The number of cells of the layer.
+     */
+    private final int cellCount;
+
+    /**
+     * Constructor for a layer with every cell unprocessed.
+     *
+     * @param cellCount the number of cells of the layer
+     */
+    public StateLayer(int cellCount) {
+        this.cellCount = cellCount;
+        this.pages = new byte[(cellCount + PAGE_SIZE - 1) >> PAGE_SHIFT][];
+    }
+
+    /**
+     * Constructor for a layer covering every cell of a maze.
+     *
+     * @param maze the maze to cover
+     */
+    public StateLayer(Maze maze) {
+        this(maze.getCellCount());
+    }
+
+    /**
+     * Get the state of a cell. The ID is not checked.
+     *
+     * @param id the ID of the cell
+     * @return the state of the cell
+     */
+    public CellState getState(int id) {
+        byte[] page = pages[id >> PAGE_SHIFT];
+        if (page == null) {
+            return CellState.UNPROCESSED;
+        }
+        return CellState.fromByte(page[id & (PAGE_SIZE - 1)]);
+    }
+
+    /**
+     * Set the state of a cell. The ID is not checked.
+     *
+     * @param id    the ID of the cell
+     * @param state the new state of the cell
+     */
+    public void setState(int id, CellState state) {
+        byte[] page = pages[id >> PAGE_SHIFT];
+        if (page == null) {
+            if (state == CellState.UNPROCESSED) {
+                return;
+            }
+            page = new byte[PAGE_SIZE];
+            pages[id >> PAGE_SHIFT] = page;
+        }
+        page[id & (PAGE_SIZE - 1)] = state.toByte();
+    }
+
+    /**
+     * Set the state of every cell at once.
+     * Filling with UNPROCESSED releases every page.
+     *
+     * @param state the new state of every cell
+     */
+    public void fill(CellState state) {
+        for (int i = 0; i < pages.length; i++) {
+            if (state == CellState.UNPROCESSED) {
+                pages[i] = null;
+            } else {
+                if (pages[i] == null) {
+                    pages[i] = new byte[PAGE_SIZE];
+                }
+                Arrays.fill(pages[i], state.toByte());
+            }
+        }
+    }
+
+    /**
+     * Get the number of cells of the layer.
+     *
+     * @return the number of cells
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Get the number of pages that were allocated so far.
+     *
+     * @return the number of allocated pages
+     */
+    public int getAllocatedPageCount() {
+        int count = 0;
+        for (byte[] page : pages) {
+            if (page != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
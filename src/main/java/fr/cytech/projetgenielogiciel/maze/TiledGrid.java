@@ -0,0 +1,277 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Class representing the connections of a rectangular grid as packed bits,
+ * split in square tiles that are only allocated when first written to.
+ *
+ * Bits are laid out like in a BitGrid, 4 bits per cell, but every tile of
+ * TILE_SIZE x TILE_SIZE cells has its own array, in row-major order inside
+ * the tile. A tile that was never written to has every wall closed and
+ * costs a single null reference, so a sparse or partially built maze only
+ * costs memory for the parts that were touched. Neighbors mostly share a
+ * tile, which also keeps walks through the maze cache friendly.
+ */
+public final class TiledGrid implements IConnectionGrid, Serializable {
+    /**
+     * The size of the side of a tile, as a power of 2.
+     */
+    public static final int TILE_SHIFT = 6;
+
+    /**
+     * The size of the side of a tile, in cells.
+     */
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    /**
+     * Number of bits used by a single cell.
+     */
+    private static final int BITS_PER_CELL = 4;
+
+    /**
+     * Number of cells packed in a single long.
+     */
+    private static final int CELLS_PER_WORD = Long.SIZE / BITS_PER_CELL;
+
+    /**
+     * Number of longs in a tile.
+     */
+    private static final int WORDS_PER_TILE = TILE_SIZE * TILE_SIZE / CELLS_PER_WORD;
+
+    /**
+     * Mask of the bits of a single cell.
+     */
+    private static final long CELL_MASK = (1L << BITS_PER_CELL) - 1;
+
+    /**
+     * Number of columns of the grid.
+     */
+    private final int columns;
+
+    /**
+     * Number of rows of the grid.
+     */
+    private final int rows;
+
+    /**
+     * Number of columns of tiles.
+     */
+    private final int tileColumns;
+
+    /**
+     * The tiles, in row-major order. Null until first written to.
+     */
+    private final long[][] tiles;
+
+    /**
+     * Constructor for a grid with every wall closed.
+     * No tile is allocated yet.
+     *
+     * @param columns the number of columns of the grid
+     * @param rows    the number of rows of the grid
+     */
+    public TiledGrid(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        this.tileColumns = (columns + TILE_SIZE - 1) >> TILE_SHIFT;
+        int tileRows = (rows + TILE_SIZE - 1) >> TILE_SHIFT;
+        this.tiles = new long[tileColumns * tileRows][];
+    }
+
+    /**
+     * Get the index of the tile holding a cell.
+     *
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the index of the tile
+     */
+    private int tileIndex(int x, int y) {
+        return (x >> TILE_SHIFT) + (y >> TILE_SHIFT) * tileColumns;
+    }
+
+    /**
+     * Get the index of a cell inside its tile.
+     *
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the index of the cell in its tile
+     */
+    private static int localIndex(int x, int y) {
+        return (x & (TILE_SIZE - 1)) + ((y & (TILE_SIZE - 1)) << TILE_SHIFT);
+    }
+
+    /**
+     * Opens the wall of a cell in a given direction.
+     * This only affects the given cell, not its neighbor.
+     * The tile of the cell is allocated if needed.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to open
+     */
+    @Override
+    public void set(int index, Direction direction) {
+        int x = index % columns;
+        int y = index / columns;
+        int tileIndex = tileIndex(x, y);
+        long[] tile = tiles[tileIndex];
+        if (tile == null) {
+            tile = new long[WORDS_PER_TILE];
+            tiles[tileIndex] = tile;
+        }
+        int local = localIndex(x, y);
+        tile[local / CELLS_PER_WORD] |= 1L << ((local % CELLS_PER_WORD) * BITS_PER_CELL + direction.ordinal());
+    }
+
+    /**
+     * Closes the wall of a cell in a given direction.
+     * This only affects the given cell, not its neighbor.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to close
+     */
+    @Override
+    public void clear(int index, Direction direction) {
+        int x = index % columns;
+        int y = index / columns;
+        long[] tile = tiles[tileIndex(x, y)];
+        if (tile != null) {
+            int local = localIndex(x, y);
+            tile[local / CELLS_PER_WORD] &= ~(1L << ((local % CELLS_PER_WORD) * BITS_PER_CELL + direction.ordinal()));
+        }
+    }
+
+    /**
+     * Checks whether a cell is open in a given direction.
+     *
+     * @param index     the index of the cell
+     * @param direction the direction to check
+     * @return true if the cell is connected in the given direction
+     */
+    @Override
+    public boolean has(int index, Direction direction) {
+        return (getMask(index) & (1 << direction.ordinal())) != 0;
+    }
+
+    /**
+     * Get all of the connection bits of a cell at once.
+     * Bit n of the result is set if the cell is connected in the direction
+     * of ordinal n.
+     *
+     * @param index the index of the cell
+     * @return the 4 bit connection mask of the cell
+     */
+    @Override
+    public int getMask(int index) {
+        int x = index % columns;
+        int y = index / columns;
+        long[] tile = tiles[tileIndex(x, y)];
+        if (tile == null) {
+            return 0;
+        }
+        int local = localIndex(x, y);
+        return (int) ((tile[local / CELLS_PER_WORD] >>> ((local % CELLS_PER_WORD) * BITS_PER_CELL)) & CELL_MASK);
+    }
+
+    /**
+     * Whether a cell may be connected to a neighbor without the neighbor
+     * being connected back. Every cell owns its 4 bits, so this is true.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsOneWay() {
+        return true;
+    }
+
+    /**
+     * Get the number of columns of the grid.
+     *
+     * @return the number of columns
+     */
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of rows of the grid.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the number of tiles that were allocated so far.
+     *
+     * @return the number of allocated tiles
+     */
+    public int getAllocatedTileCount() {
+        int count = 0;
+        for (long[] tile : tiles) {
+            if (tile != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * HashCode implementation for the grid.
+     * Unallocated tiles hash like tiles with every wall closed.
+     *
+     * @return the hash code of the grid
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + columns;
+        result = prime * result + rows;
+        for (long[] tile : tiles) {
+            // Starts from 0, so that a tile with every wall closed hashes to 0
+            int tileHash = 0;
+            if (tile != null) {
+                for (long word : tile) {
+                    tileHash = prime * tileHash + Long.hashCode(word);
+                }
+            }
+            result = prime * result + tileHash;
+        }
+        return result;
+    }
+
+    /**
+     * Equals implementation for the grid.
+     * Unallocated tiles are equal to tiles with every wall closed.
+     *
+     * @param obj the object to compare to
+     * @return true if the objects are equivalent, false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        TiledGrid other = (TiledGrid) obj;
+        if (columns != other.columns || rows != other.rows) {
+            return false;
+        }
+        long[] empty = new long[WORDS_PER_TILE];
+        for (int i = 0; i < tiles.length; i++) {
+            long[] tile = tiles[i] == null ? empty : tiles[i];
+            long[] otherTile = other.tiles[i] == null ? empty : other.tiles[i];
+            if (!Arrays.equals(tile, otherTile)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,274 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.BitGrid;
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Base class for the builders that generate every row from local decisions
+ * only, such as SidewinderBuilder and BinaryTreeBuilder.
+ *
+ * Every row has its own stream of the RNG of the builder, picked by the
+ * index of the row, so rows do not depend on each other. A step generates
+ * a single row, and build() generates the remaining rows concurrently on a
+ * ForkJoinPool. The maze is the same either way, whatever the number of
+ * threads. Apart from the maze, only a buffer of one row per task is used.
+ *
+ * Rows are written straight into a BIT_GRID maze with atomic updates; with
+ * other storage modes, build() is sequential.
+ */
+public abstract class AbstractRowBuilder implements IBuilder {
+
+    /**
+     * Rows are split between tasks until a task has at most this many cells.
+     */
+    private static final int CELLS_PER_TASK = 1 << 16;
+
+    /**
+     * Whether the builder is finished building.
+     */
+    private Boolean finished;
+
+    /**
+     * Reference to the maze that the builder is working on
+     */
+    protected final Maze maze;
+
+    /**
+     * The layer the builder displays its progress on.
+     */
+    protected final StateLayer layer;
+
+    /**
+     * The generator every row stream is derived from.
+     */
+    private final SplitMix64Random streams;
+
+    /**
+     * The index of the next row to generate.
+     */
+    private int nextRow = 0;
+
+    /**
+     * The pool to generate rows on, or null for the common pool.
+     * Pools cannot be serialized.
+     */
+    private final transient ForkJoinPool pool;
+
+    /**
+     * Constructor.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from, a single number is drawn to seed the
+     *              streams of the rows
+     * @param pool  the pool to generate rows on, or null for the common pool.
+     */
+    protected AbstractRowBuilder(Maze maze, StateLayer layer, RandomGenerator rand, ForkJoinPool pool) {
+        this.maze = maze;
+        this.layer = layer;
+        this.streams = new SplitMix64Random(rand.nextLong());
+        this.pool = pool;
+        this.finished = false;
+    }
+
+    /**
+     * Decides the links of the cells of a row.
+     * Must only depend on the row index and the RNG.
+     *
+     * @param y     the index of the row
+     * @param rand  the RNG of the row
+     * @param links the links of every cell of the row, all cleared, to fill
+     *              as in an IRowSink
+     */
+    protected abstract void generateRow(int y, RandomGenerator rand, byte[] links);
+
+    /**
+     * Create an iterator for the builder.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Boolean> iterator() {
+        return new RowIterator();
+    }
+
+    /**
+     * Generates every remaining row, concurrently if the maze is a BIT_GRID.
+     *
+     * @return whether the build process could execute a step.
+     */
+    @Override
+    public Boolean build() {
+        if (finished) {
+            return false;
+        }
+
+        BitGrid grid = maze.getBitGrid();
+        if (grid == null) {
+            Boolean ret = false;
+            for (Boolean stepStatus : this)
+                ret = stepStatus;
+            return ret;
+        }
+
+        ForkJoinPool target = pool == null ? ForkJoinPool.commonPool() : pool;
+        target.invoke(new RowTask(nextRow, maze.getHeight() + 1, grid));
+        nextRow = maze.getHeight() + 1;
+        layer.fill(CellState.PROCESSED);
+        this.finished = true;
+        return true;
+    }
+
+    /**
+     * Whether the building process is finished.
+     *
+     * @return if the building process is finished
+     */
+    @Override
+    public Boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * INTERNAL USE ONLY!
+     * Iterator implementation for the builder. Required to avoid
+     * self-referencing.
+     */
+    private class RowIterator implements Iterator<Boolean> {
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public Boolean next() {
+            if (finished) {
+                return false;
+            }
+            return step();
+        }
+    }
+
+    /**
+     * Generates the next row, on the calling thread.
+     *
+     * @return whether a step could be executed.
+     */
+    @Override
+    public Boolean step() {
+        if (finished) {
+            return false;
+        }
+
+        int y = nextRow++;
+        byte[] links = new byte[maze.getWidth() + 1];
+        generateRow(y, rowRandom(y), links);
+        for (int x = 0; x < links.length; x++) {
+            if ((links[x] & IRowSink.LINK_NEXT_COLUMN) != 0) {
+                maze.connect(x, y, Direction.LEFT);
+            }
+            if ((links[x] & IRowSink.LINK_NEXT_ROW) != 0) {
+                maze.connect(x, y, Direction.UP);
+            }
+            layer.setState(maze.getCellId(x, y), CellState.PROCESSED);
+        }
+
+        this.finished = nextRow > maze.getHeight();
+        return true;
+    }
+
+    /**
+     * Get the RNG of a row.
+     *
+     * @param y the index of the row
+     * @return a new RNG, always the same for a given seed and row
+     */
+    private RandomGenerator rowRandom(int y) {
+        return streams.stream(y);
+    }
+
+    /**
+     * Task generating a range of rows, split in halves until small enough.
+     */
+    private class RowTask extends RecursiveAction {
+        /**
+         * The first row of the range.
+         */
+        private final int from;
+
+        /**
+         * The row after the last one of the range.
+         */
+        private final int to;
+
+        /**
+         * The grid of the maze.
+         */
+        private final BitGrid grid;
+
+        /**
+         * Constructor for a task.
+         *
+         * @param from the first row of the range
+         * @param to   the row after the last one of the range
+         * @param grid the grid of the maze
+         */
+        private RowTask(int from, int to, BitGrid grid) {
+            this.from = from;
+            this.to = to;
+            this.grid = grid;
+        }
+
+        @Override
+        protected void compute() {
+            int columns = maze.getWidth() + 1;
+            if (to - from > 1 && (long) (to - from) * columns > CELLS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(from, middle, grid), new RowTask(middle, to, grid));
+                return;
+            }
+
+            byte[] links = new byte[columns];
+            for (int y = from; y < to; y++) {
+                Arrays.fill(links, (byte) 0);
+                generateRow(y, rowRandom(y), links);
+                int rowStart = maze.getCellId(0, y);
+                for (int x = 0; x < columns; x++) {
+                    int id = rowStart + x;
+                    if ((links[x] & IRowSink.LINK_NEXT_COLUMN) != 0) {
+                        grid.setAtomic(id, Direction.LEFT);
+                        grid.setAtomic(id + 1, Direction.RIGHT);
+                    }
+                    if ((links[x] & IRowSink.LINK_NEXT_ROW) != 0) {
+                        grid.setAtomic(id, Direction.UP);
+                        grid.setAtomic(id + columns, Direction.DOWN);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Read accessor for the maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
+}
@@ -0,0 +1,109 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder using the binary tree algorithm.
+ *
+ * Every cell is connected either to (x + 1, y) or to (x, y + 1), at random.
+ * The last column can only go to the next row and the last row only to the
+ * next column, so they are straight corridors. The maze is heavily biased
+ * towards the corner of the last cell, but every cell only depends on its
+ * own coin flip, which makes this the fastest builder.
+ */
+public class BinaryTreeBuilder extends AbstractRowBuilder {
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param seed seed for the RNG
+     */
+    public BinaryTreeBuilder(Maze maze, Integer seed) {
+        this(maze, maze.getStateLayer(), seed);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param rand the RNG to draw from
+     */
+    public BinaryTreeBuilder(Maze maze, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), rand);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param seed  seed for the RNG
+     */
+    public BinaryTreeBuilder(Maze maze, StateLayer layer, Integer seed) {
+        this(maze, layer, seed, null);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from
+     */
+    public BinaryTreeBuilder(Maze maze, StateLayer layer, RandomGenerator rand) {
+        this(maze, layer, rand, null);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and pool.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param seed  seed for the RNG
+     * @param pool  the pool to generate rows on, or null for the common pool.
+     */
+    public BinaryTreeBuilder(Maze maze, StateLayer layer, Integer seed, ForkJoinPool pool) {
+        this(maze, layer, new SplitMix64Random(seed), pool);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer, RNG and pool.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from
+     * @param pool  the pool to generate rows on, or null for the common pool.
+     */
+    public BinaryTreeBuilder(Maze maze, StateLayer layer, RandomGenerator rand, ForkJoinPool pool) {
+        super(maze, layer, rand, pool);
+    }
+
+    /**
+     * Flips a coin for every cell of a row.
+     *
+     * @param y     the index of the row
+     * @param rand  the RNG of the row
+     * @param links the links of every cell of the row
+     */
+    @Override
+    protected void generateRow(int y, RandomGenerator rand, byte[] links) {
+        int lastX = links.length - 1;
+        boolean lastRow = y == maze.getHeight();
+        for (int x = 0; x <= lastX; x++) {
+            if (lastRow) {
+                links[x] = x < lastX ? IRowSink.LINK_NEXT_COLUMN : 0;
+            } else if (x == lastX) {
+                links[x] = IRowSink.LINK_NEXT_ROW;
+            } else {
+                links[x] = rand.nextBoolean() ? IRowSink.LINK_NEXT_COLUMN : IRowSink.LINK_NEXT_ROW;
+            }
+        }
+    }
+}
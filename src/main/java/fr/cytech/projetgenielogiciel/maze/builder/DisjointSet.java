@@ -0,0 +1,113 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.io.Serializable;
+
+/**
+ * Class representing a partition of the integers [0, size) into disjoint
+ * sets, also known as union-find.
+ *
+ * Elements are plain ints and the forest is stored in primitive arrays, so
+ * no object is created per element. Union by rank and path compression keep
+ * every operation close to constant time.
+ */
+public final class DisjointSet implements Serializable {
+    /**
+     * The parent of every element. Roots are their own parent.
+     */
+    private final int[] parent;
+
+    /**
+     * An upper bound of the height of the tree of every root.
+     * A rank never exceeds log2(size), so a byte is enough.
+     */
+    private final byte[] rank;
+
+    /**
+     * The number of sets.
+     */
+    private int setCount;
+
+    /**
+     * Constructor for a partition where every element is alone in its set.
+     *
+     * @param size the number of elements
+     */
+    public DisjointSet(int size) {
+        this.parent = new int[size];
+        this.rank = new byte[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+        this.setCount = size;
+    }
+
+    /**
+     * Finds the representative of the set of an element.
+     * Every element on the way is moved closer to the root.
+     *
+     * @param element the element
+     * @return the representative of its set
+     */
+    public int find(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Merges the sets of two elements.
+     *
+     * @param a the first element
+     * @param b the second element
+     * @return true if the elements were in different sets
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+
+        if (rank[rootA] < rank[rootB]) {
+            parent[rootA] = rootB;
+        } else if (rank[rootA] > rank[rootB]) {
+            parent[rootB] = rootA;
+        } else {
+            parent[rootB] = rootA;
+            rank[rootA]++;
+        }
+        setCount--;
+        return true;
+    }
+
+    /**
+     * Checks whether two elements are in the same set.
+     *
+     * @param a the first element
+     * @param b the second element
+     * @return true if they are in the same set
+     */
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * Get the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * Get the number of disjoint sets.
+     *
+     * @return the number of sets
+     */
+    public int getSetCount() {
+        return setCount;
+    }
+}
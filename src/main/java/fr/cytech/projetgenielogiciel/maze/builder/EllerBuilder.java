@@ -1,10 +1,13 @@
 package fr.cytech.projetgenielogiciel.maze.builder;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
+import fr.cytech.projetgenielogiciel.maze.CellState;
 import fr.cytech.projetgenielogiciel.maze.Maze;
-import javafx.scene.paint.Color;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 
 /**
  * Maze builder using Eller's set theory based algorithm.
@@ -28,6 +31,11 @@ import javafx.scene.paint.Color;
  * Step 6: When on the last row, repeat step 3 but remove the randomness,
  * always connecting to the next cell if it's in a different set. Don't make any
  * downward connections.
+ *
+ * Only the current row is kept: the sets are a union-find over its columns,
+ * and every finished row is handed to an IRowSink. Memory is thus O(width)
+ * whatever the height, and a maze can be streamed straight to a file with a
+ * FileRowSink. Every step builds a single row.
  */
 public class EllerBuilder implements IBuilder {
 
@@ -37,35 +45,297 @@ public class EllerBuilder implements IBuilder {
     private Boolean finished;
 
     /**
-     * The maze being worked on.
+     * The maze being worked on, or null if the builder only writes to a sink.
      */
     private final Maze maze;
 
+    /**
+     * The layer the builder displays its progress on, or null.
+     */
+    private final StateLayer layer;
+
     /**
      * The source of RNG for the builder
      */
-    private final Random rand;
+    private final RandomGenerator rand;
+
+    /**
+     * Where the finished rows go.
+     */
+    private final IRowSink sink;
+
+    /**
+     * Number of columns of the maze.
+     */
+    private final int columns;
+
+    /**
+     * Number of rows of the maze.
+     */
+    private final int rows;
+
+    /**
+     * The index of the next row to build.
+     */
+    private int row = 0;
+
+    /**
+     * The set every column of the next row was carried into from the row
+     * above, as a column of that row, or -1 for a new set.
+     */
+    private final int[] carried;
+
+    /**
+     * The union-find parent of every column of the current row.
+     */
+    private final int[] parent;
+
+    /**
+     * The first column of the current row carried into a given set.
+     */
+    private final int[] firstOfSet;
+
+    /**
+     * The number of columns seen so far in every set, by root column.
+     */
+    private final int[] setSize;
+
+    /**
+     * The column forced to link downward if its set has no link yet, by root
+     * column.
+     */
+    private final int[] forcedDown;
+
+    /**
+     * The sets that already link downward, by root column.
+     */
+    private final BitSet linkedDown;
+
+    /**
+     * The links of the current row, see IRowSink.
+     */
+    private final byte[] links;
 
     /**
      * Constructor for the EllerBuilder.
+     * The progress is displayed on the default state layer of the maze.
      *
      * @param maze   the maze to build.
-     * @param startx the starting X position.
-     * @param starty the starting Y position.
+     * @param startx the starting X position, unused: rows are always built
+     *               from the first one.
+     * @param starty the starting Y position, unused.
      * @param seed   the seed for the RNG
      */
     public EllerBuilder(Maze maze, Integer startx, Integer starty, Integer seed) {
+        this(maze, maze.getStateLayer(), startx, starty, seed);
+    }
+
+    /**
+     * Constructor for the EllerBuilder, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze   the maze to build.
+     * @param startx the starting X position, unused: rows are always built
+     *               from the first one.
+     * @param starty the starting Y position, unused.
+     * @param rand   the RNG to draw from
+     */
+    public EllerBuilder(Maze maze, Integer startx, Integer starty, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), startx, starty, rand);
+    }
+
+    /**
+     * Constructor for the EllerBuilder, with a dedicated state layer.
+     *
+     * @param maze   the maze to build.
+     * @param layer  the layer to display the progress on.
+     * @param startx the starting X position, unused: rows are always built
+     *               from the first one.
+     * @param starty the starting Y position, unused.
+     * @param seed   the seed for the RNG
+     */
+    public EllerBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, Integer seed) {
+        this(maze, layer, startx, starty, new SplitMix64Random(seed));
+    }
+
+    /**
+     * Constructor for the EllerBuilder, with a dedicated state layer and a
+     * given RNG.
+     *
+     * @param maze   the maze to build.
+     * @param layer  the layer to display the progress on.
+     * @param startx the starting X position, unused: rows are always built
+     *               from the first one.
+     * @param starty the starting Y position, unused.
+     * @param rand   the RNG to draw from
+     */
+    public EllerBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, RandomGenerator rand) {
+        this(maze.getWidth() + 1, maze.getHeight() + 1, new MazeRowSink(maze), maze, layer, rand);
+    }
+
+    /**
+     * Constructor for the EllerBuilder, writing rows to a sink only.
+     * No maze nor state layer is involved, so getMaze and getStateLayer
+     * return null.
+     *
+     * @param width  the number of columns of the maze.
+     * @param height the number of rows of the maze.
+     * @param sink   where to send the finished rows.
+     * @param seed   the seed for the RNG
+     */
+    public EllerBuilder(Integer width, Integer height, IRowSink sink, Integer seed) {
+        this(width, height, sink, new SplitMix64Random(seed));
+    }
+
+    /**
+     * Constructor for the EllerBuilder, writing rows to a sink only, with a
+     * given RNG.
+     *
+     * @param width  the number of columns of the maze.
+     * @param height the number of rows of the maze.
+     * @param sink   where to send the finished rows.
+     * @param rand   the RNG to draw from
+     */
+    public EllerBuilder(Integer width, Integer height, IRowSink sink, RandomGenerator rand) {
+        this(width, height, sink, null, null, rand);
+    }
+
+    /**
+     * Common constructor.
+     *
+     * @param width  the number of columns of the maze.
+     * @param height the number of rows of the maze.
+     * @param sink   where to send the finished rows.
+     * @param maze   the maze being built, or null.
+     * @param layer  the layer to display the progress on, or null.
+     * @param rand   the RNG to draw from
+     */
+    private EllerBuilder(int width, int height, IRowSink sink, Maze maze, StateLayer layer, RandomGenerator rand) {
+        this.columns = width;
+        this.rows = height;
+        this.sink = sink;
         this.maze = maze;
-        this.maze.getCell(startx, starty).setColor(Color.RED);
-        this.rand = new Random(seed);
+        this.layer = layer;
+        this.rand = rand;
+
+        this.carried = new int[width];
+        Arrays.fill(carried, -1);
+        this.parent = new int[width];
+        this.firstOfSet = new int[width];
+        this.setSize = new int[width];
+        this.forcedDown = new int[width];
+        this.linkedDown = new BitSet(width);
+        this.links = new byte[width];
 
         this.finished = false;
     }
 
+    /**
+     * Builds the next row and sends it to the sink.
+     *
+     * @return whether a row could be built.
+     */
     @Override
     public Boolean step() {
-        return false;
-        // TODO
+        if (finished) {
+            return false;
+        }
+        boolean lastRow = row == rows - 1;
+        Arrays.fill(links, (byte) 0);
+
+        // Step 2: every column is in its own set, unless it was carried down
+        Arrays.fill(firstOfSet, -1);
+        for (int x = 0; x < columns; x++) {
+            parent[x] = x;
+            int set = carried[x];
+            if (set >= 0) {
+                if (firstOfSet[set] < 0) {
+                    firstOfSet[set] = x;
+                } else {
+                    parent[x] = firstOfSet[set];
+                }
+            }
+        }
+
+        // Step 3 and 6: randomly merge neighbors, always on the last row
+        for (int x = 0; x < columns - 1; x++) {
+            int left = find(x);
+            int right = find(x + 1);
+            if (left != right && (lastRow || rand.nextBoolean())) {
+                links[x] |= IRowSink.LINK_NEXT_COLUMN;
+                parent[right] = left;
+            }
+        }
+
+        // Step 4: link downward at random, at least once per set
+        if (!lastRow) {
+            Arrays.fill(setSize, 0);
+            linkedDown.clear();
+            for (int x = 0; x < columns; x++) {
+                int root = find(x);
+                // Pick the forced column uniformly among the set
+                if (rand.nextInt(++setSize[root]) == 0) {
+                    forcedDown[root] = x;
+                }
+                if (rand.nextBoolean()) {
+                    links[x] |= IRowSink.LINK_NEXT_ROW;
+                    linkedDown.set(root);
+                }
+            }
+            for (int x = 0; x < columns; x++) {
+                if (parent[x] == x && !linkedDown.get(x)) {
+                    links[forcedDown[x]] |= IRowSink.LINK_NEXT_ROW;
+                }
+            }
+            for (int x = 0; x < columns; x++) {
+                carried[x] = (links[x] & IRowSink.LINK_NEXT_ROW) != 0 ? find(x) : -1;
+            }
+        }
+
+        sink.acceptRow(row, links);
+        showProgress(lastRow);
+
+        row++;
+        if (lastRow) {
+            sink.finish();
+            this.finished = true;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the set of a column of the current row, compressing the path.
+     *
+     * @param x the column
+     * @return the root column of its set
+     */
+    private int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Marks the row that was just built as current, and the one before as
+     * processed.
+     *
+     * @param lastRow whether the row was the last one
+     */
+    private void showProgress(boolean lastRow) {
+        if (layer == null) {
+            return;
+        }
+        int start = row * columns;
+        if (row > 0) {
+            for (int id = start - columns; id < start; id++) {
+                layer.setState(id, CellState.PROCESSED);
+            }
+        }
+        for (int id = start; id < start + columns; id++) {
+            layer.setState(id, lastRow ? CellState.PROCESSED : CellState.CURRENT);
+        }
     }
 
     @Override
@@ -101,9 +371,17 @@ public class EllerBuilder implements IBuilder {
     /**
      * Get the maze of the builder.
      *
-     * @return the maze.
+     * @return the maze, or null if the builder only writes to a sink.
      */
     public Maze getMaze() {
         return this.maze;
     }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
 }
@@ -0,0 +1,152 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+import fr.cytech.projetgenielogiciel.maze.MazeFormat;
+
+/**
+ * Row sink writing a maze file as rows come, in the MazeFormat.
+ *
+ * Only a fixed size buffer is kept in memory, so mazes much larger than the
+ * heap can be generated straight to disk, or to any other channel, e.g. a
+ * socket. The file can then be read back with MazeFormat.read or opened
+ * with Maze.openMapped.
+ * This sink holds a channel, so a builder writing to it cannot be
+ * serialized.
+ */
+public class FileRowSink implements IRowSink {
+    /**
+     * The size of the buffer, in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Number of cells packed in a single long, at 2 bits per cell.
+     */
+    private static final int CELLS_PER_WORD = Long.SIZE / 2;
+
+    /**
+     * The channel the file is written to.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * Number of columns of the maze.
+     */
+    private final int columns;
+
+    /**
+     * Number of rows of the maze.
+     */
+    private final int rows;
+
+    /**
+     * The data not written to the channel yet.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The word being packed.
+     */
+    private long word = 0;
+
+    /**
+     * The ID of the next cell to pack.
+     */
+    private long cell = 0;
+
+    /**
+     * The index of the next row expected.
+     */
+    private int nextRow = 0;
+
+    /**
+     * Constructor for a sink writing to a channel.
+     * The channel is not closed by the sink.
+     *
+     * @param channel the channel to write to
+     * @param columns the number of columns of the maze
+     * @param rows    the number of rows of the maze
+     */
+    public FileRowSink(WritableByteChannel channel, int columns, int rows) {
+        if (columns <= 0 || rows <= 0 || (long) columns * rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid maze dimensions " + columns + "x" + rows);
+        }
+        this.channel = channel;
+        this.columns = columns;
+        this.rows = rows;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        MazeFormat.putHeader(buffer, columns, rows, (short) 0);
+    }
+
+    /**
+     * Packs a row in the buffer, writing the buffer out when it is full.
+     *
+     * @param y     the index of the row, which must follow the previous one
+     * @param links the links of every cell of the row
+     * @throws UncheckedIOException if the channel could not be written to
+     */
+    @Override
+    public void acceptRow(int y, byte[] links) {
+        if (y != nextRow) {
+            throw new IllegalStateException("Expected row " + nextRow + ", got " + y);
+        }
+        // The last column and the last row have no neighbor to link to
+        int mask = y == rows - 1 ? LINK_NEXT_COLUMN : LINK_NEXT_COLUMN | LINK_NEXT_ROW;
+        for (int x = 0; x < columns; x++) {
+            long bits = links[x] & (x == columns - 1 ? mask & ~LINK_NEXT_COLUMN : mask);
+            word |= bits << ((cell % CELLS_PER_WORD) * 2);
+            if (++cell % CELLS_PER_WORD == 0) {
+                putWord();
+            }
+        }
+        nextRow++;
+    }
+
+    /**
+     * Writes the rest of the file to the channel.
+     *
+     * @throws IllegalStateException if some rows are missing
+     * @throws UncheckedIOException  if the channel could not be written to
+     */
+    @Override
+    public void finish() {
+        if (nextRow != rows) {
+            throw new IllegalStateException("Only " + nextRow + " rows out of " + rows + " were given");
+        }
+        if (cell % CELLS_PER_WORD != 0) {
+            putWord();
+        }
+        flush();
+    }
+
+    /**
+     * Puts the word being packed in the buffer, and starts a new one.
+     */
+    private void putWord() {
+        if (buffer.remaining() < Long.BYTES) {
+            flush();
+        }
+        buffer.putLong(word);
+        word = 0;
+    }
+
+    /**
+     * Writes the buffer to the channel, and empties it.
+     */
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,354 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder using the growing tree algorithm.
+ *
+ * A list of active cells starts with the starting cell. Every step picks an
+ * active cell according to a Policy: if it has unvisited neighbors, one of
+ * them is connected and becomes active, otherwise the cell is removed from
+ * the list. Always picking the newest cell behaves like a DFS, always
+ * picking the oldest like a BFS, and everything in between can be tuned.
+ * DfsBuilder and BfsBuilder are this builder with a fixed policy.
+ *
+ * The active cells are kept in a single int array, used as a deque: every
+ * cell is added once at the tail, so the array never wraps. A cell removed
+ * from the middle is replaced by the oldest cell, which keeps the newest
+ * cell at the tail.
+ */
+public class GrowingTreeBuilder implements IBuilder {
+
+    /**
+     * How the builder picks the next active cell.
+     */
+    public static enum Policy {
+        /**
+         * Always the newest cell, like a DFS.
+         */
+        NEWEST,
+        /**
+         * Always the oldest cell, like a BFS.
+         */
+        OLDEST,
+        /**
+         * A random cell, like Prim's algorithm.
+         */
+        RANDOM,
+        /**
+         * The newest cell with a given probability, a random one otherwise.
+         */
+        MIXED
+    }
+
+    /**
+     * Whether the builder is finished building.
+     */
+    protected Boolean finished;
+
+    /**
+     * Reference to the maze that the builder is working on
+     */
+    protected final Maze maze;
+
+    /**
+     * The layer the builder displays its progress on.
+     */
+    protected final StateLayer layer;
+
+    /**
+     * Random generator, shared with the subclasses so that they continue
+     * the same sequence.
+     */
+    protected final RandomGenerator rand;
+
+    /**
+     * How the next active cell is picked.
+     */
+    private final Policy policy;
+
+    /**
+     * Percentage of steps that pick the newest cell, with the MIXED policy.
+     */
+    private final Integer newestProbability;
+
+    /**
+     * Holds the set of cells that were visited, by ID.
+     */
+    private final BitSet visited;
+
+    /**
+     * The IDs of the active cells are between head and tail.
+     */
+    private final int[] active;
+
+    /**
+     * The index of the oldest active cell.
+     */
+    private int head = 0;
+
+    /**
+     * The index after the newest active cell.
+     */
+    private int tail = 0;
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     * The MIXED policy picks the newest cell half of the time.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param seed   seed for the RNG
+     * @param policy how to pick the next active cell
+     */
+    public GrowingTreeBuilder(Maze maze, Integer startx, Integer starty, Integer seed, Policy policy) {
+        this(maze, startx, starty, seed, policy, 50);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     * The MIXED policy picks the newest cell half of the time.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param rand   the RNG to draw from
+     * @param policy how to pick the next active cell
+     */
+    public GrowingTreeBuilder(Maze maze, Integer startx, Integer starty, RandomGenerator rand, Policy policy) {
+        this(maze, startx, starty, rand, policy, 50);
+    }
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze              Reference to the maze being worked on.
+     * @param startx            starting X position.
+     * @param starty            starting Y position.
+     * @param seed              seed for the RNG
+     * @param policy            how to pick the next active cell
+     * @param newestProbability percentage of steps picking the newest cell
+     *                          with the MIXED policy
+     */
+    public GrowingTreeBuilder(Maze maze, Integer startx, Integer starty, Integer seed, Policy policy,
+            Integer newestProbability) {
+        this(maze, maze.getStateLayer(), startx, starty, seed, policy, newestProbability);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze              Reference to the maze being worked on.
+     * @param startx            starting X position.
+     * @param starty            starting Y position.
+     * @param rand              the RNG to draw from
+     * @param policy            how to pick the next active cell
+     * @param newestProbability percentage of steps picking the newest cell
+     *                          with the MIXED policy
+     */
+    public GrowingTreeBuilder(Maze maze, Integer startx, Integer starty, RandomGenerator rand, Policy policy,
+            Integer newestProbability) {
+        this(maze, maze.getStateLayer(), startx, starty, rand, policy, newestProbability);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     *
+     * @param maze              Reference to the maze being worked on.
+     * @param layer             the layer to display the progress on.
+     * @param startx            starting X position.
+     * @param starty            starting Y position.
+     * @param seed              seed for the RNG
+     * @param policy            how to pick the next active cell
+     * @param newestProbability percentage of steps picking the newest cell
+     *                          with the MIXED policy
+     */
+    public GrowingTreeBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, Integer seed,
+            Policy policy, Integer newestProbability) {
+        this(maze, layer, startx, starty, new SplitMix64Random(seed), policy, newestProbability);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     *
+     * @param maze              Reference to the maze being worked on.
+     * @param layer             the layer to display the progress on.
+     * @param startx            starting X position.
+     * @param starty            starting Y position.
+     * @param rand              the RNG to draw from
+     * @param policy            how to pick the next active cell
+     * @param newestProbability percentage of steps picking the newest cell
+     *                          with the MIXED policy
+     */
+    public GrowingTreeBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, RandomGenerator rand,
+            Policy policy, Integer newestProbability) {
+        if (newestProbability < 0 || newestProbability > 100) {
+            throw new IllegalArgumentException("The probability of picking the newest cell must be between 0 and 100");
+        }
+        this.maze = maze;
+        this.layer = layer;
+        this.rand = rand;
+        this.policy = policy;
+        this.newestProbability = newestProbability;
+        this.visited = new BitSet(maze.getCellCount());
+        this.active = new int[maze.getCellCount()];
+
+        int start = maze.getCellId(startx, starty);
+        visited.set(start);
+        active[tail++] = start;
+        layer.setState(start, CellState.CURRENT);
+        this.finished = false;
+    }
+
+    /**
+     * Create an iterator for the builder.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Boolean> iterator() {
+        return new GrowingTreeIterator();
+    }
+
+    /**
+     * Runs as many building steps as possible.
+     *
+     * @return whether the build process could execute a step.
+     */
+    @Override
+    public Boolean build() {
+        Boolean ret = false;
+        for (Boolean stepStatus : this)
+            ret = stepStatus;
+        return ret;
+    }
+
+    /**
+     * Whether the building process is finished.
+     *
+     * @return if the building process is finished
+     */
+    @Override
+    public Boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * INTERNAL USE ONLY!
+     * Iterator implementation for the growing tree. Required to avoid
+     * self-referencing.
+     */
+    private class GrowingTreeIterator implements Iterator<Boolean> {
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public Boolean next() {
+            if (finished) {
+                return false;
+            }
+            return step();
+        }
+    }
+
+    /**
+     * Executes a step of the growing tree.
+     * A step either connects a new cell or retires an active cell.
+     *
+     * @return whether a step could be executed.
+     */
+    @Override
+    public Boolean step() {
+        if (head == tail) {
+            this.finished = true;
+            return false;
+        }
+
+        int index = pick();
+        int cell = active[index];
+        int x = maze.getCellX(cell);
+        int y = maze.getCellY(cell);
+
+        for (Direction direction : Direction.permutation(rand.nextInt(Direction.PERMUTATION_COUNT))) {
+            int targetX = x + direction.getX();
+            int targetY = y + direction.getY();
+            if (maze.isValidCell(targetX, targetY) && !visited.get(maze.getCellId(targetX, targetY))) {
+                int target = maze.getCellId(targetX, targetY);
+                maze.connect(x, y, direction);
+                visited.set(target);
+                active[tail++] = target;
+                layer.setState(target, CellState.CURRENT);
+                return true;
+            }
+        }
+
+        // No unvisited neighbor left, retire the cell
+        if (index == tail - 1) {
+            tail--;
+        } else {
+            active[index] = active[head++];
+        }
+        layer.setState(cell, CellState.PROCESSED);
+        this.finished = head == tail;
+        return true;
+    }
+
+    /**
+     * Picks the index of the next active cell, according to the policy.
+     *
+     * @return an index between head and tail
+     */
+    private int pick() {
+        switch (policy) {
+            case NEWEST:
+                return tail - 1;
+            case OLDEST:
+                return head;
+            case RANDOM:
+                return head + rand.nextInt(tail - head);
+            default:
+                if (rand.nextInt(100) < newestProbability) {
+                    return tail - 1;
+                }
+                return head + rand.nextInt(tail - head);
+        }
+    }
+
+    /**
+     * Get the policy of the builder.
+     *
+     * @return how the next active cell is picked
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Read accessor for the maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
+}
@@ -0,0 +1,359 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.Iterator;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder using the hunt-and-kill algorithm.
+ *
+ * The kill phase walks randomly to unvisited neighbors, like a DFS. When it
+ * is stuck, instead of backtracking, the hunt phase looks for an unvisited
+ * cell next to a visited one, connects them, and walks again from there.
+ * There is thus no stack: the only memory is the visited bitset.
+ *
+ * The hunt works on 64 cells at a time: for a word of the visited bitset,
+ * the candidates are the unvisited cells whose left, right, upper or lower
+ * neighbor is visited, computed with shifts of the words holding those
+ * neighbors and masks for the first and last columns. The lowest candidate
+ * is connected, so the RNG is only drawn for that cell. Every word before
+ * huntFrom is fully visited and is never looked at again.
+ */
+public class HuntAndKillBuilder implements IBuilder {
+
+    /**
+     * Whether the builder is finished building.
+     */
+    private Boolean finished;
+
+    /**
+     * Reference to the maze that the builder is working on
+     */
+    private final Maze maze;
+
+    /**
+     * The layer the builder displays its progress on.
+     */
+    private final StateLayer layer;
+
+    /**
+     * Random generator.
+     */
+    private final RandomGenerator rand;
+
+    /**
+     * Holds the set of cells that were visited, by ID: cell i is bit i % 64
+     * of word i / 64.
+     */
+    private final long[] visited;
+
+    /**
+     * The number of columns of the maze.
+     */
+    private final int columns;
+
+    /**
+     * The number of visited cells.
+     */
+    private int visitedCount = 0;
+
+    /**
+     * The ID of the cell the walk is on.
+     */
+    private int currentCell;
+
+    /**
+     * Every word of visited before this index is full.
+     */
+    private int huntFrom = 0;
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param seed   seed for the RNG
+     */
+    public HuntAndKillBuilder(Maze maze, Integer startx, Integer starty, Integer seed) {
+        this(maze, maze.getStateLayer(), startx, starty, seed);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param rand   the RNG to draw from
+     */
+    public HuntAndKillBuilder(Maze maze, Integer startx, Integer starty, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), startx, starty, rand);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param layer  the layer to display the progress on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param seed   seed for the RNG
+     */
+    public HuntAndKillBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, Integer seed) {
+        this(maze, layer, startx, starty, new SplitMix64Random(seed));
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param layer  the layer to display the progress on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param rand   the RNG to draw from
+     */
+    public HuntAndKillBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, RandomGenerator rand) {
+        this.maze = maze;
+        this.layer = layer;
+        this.rand = rand;
+        this.visited = new long[(maze.getCellCount() + 63) >>> 6];
+        this.columns = maze.getWidth() + 1;
+
+        this.currentCell = maze.getCellId(startx, starty);
+        visit(currentCell);
+        this.finished = visitedCount == maze.getCellCount();
+        if (finished) {
+            layer.setState(currentCell, CellState.PROCESSED);
+        }
+    }
+
+    /**
+     * Create an iterator for the builder.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Boolean> iterator() {
+        return new HuntAndKillIterator();
+    }
+
+    /**
+     * Runs as many building steps as possible.
+     *
+     * @return whether the build process could execute a step.
+     */
+    @Override
+    public Boolean build() {
+        Boolean ret = false;
+        for (Boolean stepStatus : this)
+            ret = stepStatus;
+        return ret;
+    }
+
+    /**
+     * Whether the building process is finished.
+     *
+     * @return if the building process is finished
+     */
+    @Override
+    public Boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * INTERNAL USE ONLY!
+     * Iterator implementation for hunt-and-kill. Required to avoid
+     * self-referencing.
+     */
+    private class HuntAndKillIterator implements Iterator<Boolean> {
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public Boolean next() {
+            if (finished) {
+                return false;
+            }
+            return step();
+        }
+    }
+
+    /**
+     * Executes a step of hunt-and-kill.
+     * A step is either a move of the walk or a hunt, and is considered over
+     * once a new cell was visited.
+     *
+     * @return whether a step could be executed.
+     */
+    @Override
+    public Boolean step() {
+        if (finished) {
+            return false;
+        }
+
+        int x = maze.getCellX(currentCell);
+        int y = maze.getCellY(currentCell);
+
+        // Kill: move to a random unvisited neighbor
+        for (Direction direction : Direction.permutation(rand.nextInt(Direction.PERMUTATION_COUNT))) {
+            int targetX = x + direction.getX();
+            int targetY = y + direction.getY();
+            if (maze.isValidCell(targetX, targetY) && !isVisited(maze.getCellId(targetX, targetY))) {
+                maze.connect(x, y, direction);
+                moveTo(maze.getCellId(targetX, targetY));
+                return true;
+            }
+        }
+
+        // Hunt: find an unvisited cell next to a visited one
+        while (huntFrom < visited.length && visited[huntFrom] == -1L) {
+            huntFrom++;
+        }
+        for (int word = huntFrom; word < visited.length; word++) {
+            long candidates = huntCandidates(word);
+            if (candidates == 0) {
+                continue;
+            }
+
+            int cell = (word << 6) + Long.numberOfTrailingZeros(candidates);
+            int cellX = maze.getCellX(cell);
+            int cellY = maze.getCellY(cell);
+            for (Direction direction : Direction.permutation(rand.nextInt(Direction.PERMUTATION_COUNT))) {
+                int targetX = cellX + direction.getX();
+                int targetY = cellY + direction.getY();
+                if (maze.isValidCell(targetX, targetY) && isVisited(maze.getCellId(targetX, targetY))) {
+                    maze.connect(cellX, cellY, direction);
+                    moveTo(cell);
+                    return true;
+                }
+            }
+        }
+
+        // Only reached if the maze was complete already
+        layer.setState(currentCell, CellState.PROCESSED);
+        this.finished = true;
+        return false;
+    }
+
+    /**
+     * Get the unvisited cells of a word that have a visited neighbor.
+     *
+     * @param word the index of the word of visited
+     * @return the candidates of the hunt, bit k being the cell 64 * word + k
+     */
+    private long huntCandidates(int word) {
+        long first = (long) word << 6;
+        long unvisited = ~visited[word];
+        int end = maze.getCellCount() - (int) first;
+        if (end < 64) {
+            unvisited &= (1L << end) - 1;
+        }
+        if (unvisited == 0) {
+            return 0;
+        }
+
+        long besideVisited = (visitedFrom(first - 1) & ~columnMask(first, 0))
+                | (visitedFrom(first + 1) & ~columnMask(first, columns - 1))
+                | visitedFrom(first - columns)
+                | visitedFrom(first + columns);
+        return unvisited & besideVisited;
+    }
+
+    /**
+     * Get 64 visited bits starting from any cell ID, as in a word.
+     * Cells outside of the maze are not visited.
+     *
+     * @param from the ID of the cell of the lowest bit, may be out of range
+     * @return bit k is whether the cell from + k is visited
+     */
+    private long visitedFrom(long from) {
+        return wordAt(Math.floorDiv(from, 64)) >>> (from & 63)
+                | ((from & 63) == 0 ? 0 : wordAt(Math.floorDiv(from, 64) + 1) << (64 - (from & 63)));
+    }
+
+    /**
+     * Get a word of visited, or an empty word outside of it.
+     *
+     * @param index the index of the word
+     * @return the word
+     */
+    private long wordAt(long index) {
+        return index < 0 || index >= visited.length ? 0 : visited[(int) index];
+    }
+
+    /**
+     * Get the cells of a word that are in a given column.
+     *
+     * @param first  the ID of the first cell of the word
+     * @param column the column
+     * @return bit k is whether the cell first + k is in the column
+     */
+    private long columnMask(long first, int column) {
+        long mask = 0;
+        long cell = first + Math.floorMod(column - first, columns);
+        for (; cell < first + 64; cell += columns) {
+            mask |= 1L << (cell - first);
+        }
+        return mask;
+    }
+
+    /**
+     * Whether a cell was visited.
+     *
+     * @param cell the ID of the cell
+     * @return if the cell was visited
+     */
+    private boolean isVisited(int cell) {
+        return (visited[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Moves the walk to a newly connected cell.
+     *
+     * @param cell the ID of the cell
+     */
+    private void moveTo(int cell) {
+        layer.setState(currentCell, CellState.PROCESSED);
+        currentCell = cell;
+        visit(cell);
+        if (visitedCount == maze.getCellCount()) {
+            layer.setState(cell, CellState.PROCESSED);
+            this.finished = true;
+        }
+    }
+
+    /**
+     * Marks a cell as visited and current.
+     *
+     * @param cell the ID of the cell
+     */
+    private void visit(int cell) {
+        visited[cell >>> 6] |= 1L << cell;
+        visitedCount++;
+        layer.setState(cell, CellState.CURRENT);
+    }
+
+    /**
+     * Read accessor for the maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
+}
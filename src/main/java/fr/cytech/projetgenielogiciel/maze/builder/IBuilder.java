@@ -3,17 +3,22 @@ package fr.cytech.projetgenielogiciel.maze.builder;
 import java.io.Serializable;
 import java.util.Iterator;
 
+import fr.cytech.projetgenielogiciel.maze.ISteppable;
 import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 
 /**
  * Interface defining a maze builder.
  * A maze builder is not a constructor, rather,
  * it generates a valid maze, depending on the implementation.
  * See: DfsBuilder and DfsBuilderImperfect.
+ * Many steps can be run at once with step(int) and runFor.
+ * A builder that keeps the RandomGenerator it is given can only be
+ * serialized if the generator is Serializable, as SplitMix64Random is.
  *
  * @author fleefie
  */
-public interface IBuilder extends Iterable<Boolean>, Serializable {
+public interface IBuilder extends Iterable<Boolean>, ISteppable, Serializable {
     /**
      * Runs a single step of the building process.
      *
@@ -50,4 +55,13 @@ public interface IBuilder extends Iterable<Boolean>, Serializable {
      * @return The maze of the builder.
      */
     public Maze getMaze();
+
+    /**
+     * Gets the state layer the builder displays its progress on.
+     * This is the default layer of the maze unless the builder was given
+     * its own.
+     *
+     * @return the state layer of the builder
+     */
+    public StateLayer getStateLayer();
 }
@@ -0,0 +1,36 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+/**
+ * Interface defining where a row-streaming builder sends finished rows.
+ *
+ * A row is given as one byte per cell, holding LINK_NEXT_COLUMN if the cell
+ * is connected to (x + 1, y) and LINK_NEXT_ROW if it is connected to
+ * (x, y + 1), like the 2 bits per cell of the MazeFormat. Rows are given in
+ * order, from y = 0, and are never changed once given, so a sink can write
+ * them out right away: see MazeRowSink and FileRowSink.
+ */
+public interface IRowSink {
+    /**
+     * Bit set in a cell of a row if it is connected to (x + 1, y).
+     */
+    public static final byte LINK_NEXT_COLUMN = 1;
+
+    /**
+     * Bit set in a cell of a row if it is connected to (x, y + 1).
+     */
+    public static final byte LINK_NEXT_ROW = 2;
+
+    /**
+     * Receives a finished row.
+     * The array is reused by the builder, so it must be copied to be kept.
+     *
+     * @param y     the index of the row
+     * @param links the links of every cell of the row
+     */
+    public void acceptRow(int y, byte[] links);
+
+    /**
+     * Called once after the last row was given.
+     */
+    public void finish();
+}
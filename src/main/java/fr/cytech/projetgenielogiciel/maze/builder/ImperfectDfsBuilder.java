@@ -1,19 +1,22 @@
 package fr.cytech.projetgenielogiciel.maze.builder;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
+import fr.cytech.projetgenielogiciel.maze.CellState;
 import fr.cytech.projetgenielogiciel.maze.Direction;
 import fr.cytech.projetgenielogiciel.maze.Maze;
-import javafx.scene.paint.Color;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 
 /**
  * Class to build an imperfect maze using a DFS as a base.
  */
 public class ImperfectDfsBuilder extends DfsBuilder {
 
+    /**
+     * Every direction, so that values() is not copied on every step.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
     /**
      * Probability of opening a wall during the imperfect phase.
      */
@@ -37,46 +40,94 @@ public class ImperfectDfsBuilder extends DfsBuilder {
     private Integer currentY = 0;
 
     /**
-     * Random number generator for the imperfect phase.
+     * Constructor for the ImperfectDfsBuilder.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze                The maze to build.
+     * @param startx              The starting x position.
+     * @param starty              The starting y position.
+     * @param seed                The seed for the random number generator.
+     * @param wallOpenProbability The probability of opening a wall during the
+     *                            imperfect phase.
      */
-    private final Random rand;
+    public ImperfectDfsBuilder(Maze maze, Integer startx, Integer starty, Integer seed, Integer wallOpenProbability) {
+        this(maze, maze.getStateLayer(), startx, starty, seed, wallOpenProbability);
+    }
 
     /**
-     * Constructor for the ImperfectDfsBuilder.
+     * Constructor for the ImperfectDfsBuilder, with a given random number generator.
+     * The progress is displayed on the default state layer of the maze.
+     * Both phases draw from the same generator.
      *
      * @param maze                The maze to build.
      * @param startx              The starting x position.
      * @param starty              The starting y position.
+     * @param rand                The random number generator to draw from.
+     * @param wallOpenProbability The probability of opening a wall during the
+     *                            imperfect phase.
+     */
+    public ImperfectDfsBuilder(Maze maze, Integer startx, Integer starty, RandomGenerator rand,
+            Integer wallOpenProbability) {
+        this(maze, maze.getStateLayer(), startx, starty, rand, wallOpenProbability);
+    }
+
+    /**
+     * Constructor for the ImperfectDfsBuilder, with a dedicated state layer.
+     *
+     * @param maze                The maze to build.
+     * @param layer               The layer to display the progress on.
+     * @param startx              The starting x position.
+     * @param starty              The starting y position.
      * @param seed                The seed for the random number generator.
      * @param wallOpenProbability The probability of opening a wall during the
      *                            imperfect phase.
      */
-    public ImperfectDfsBuilder(Maze maze, Integer startx, Integer starty, Integer seed, Integer wallOpenProbability) {
-        super(maze, startx, starty, seed);
+    public ImperfectDfsBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, Integer seed,
+            Integer wallOpenProbability) {
+        this(maze, layer, startx, starty, new SplitMix64Random(seed), wallOpenProbability);
+    }
+
+    /**
+     * Constructor for the ImperfectDfsBuilder, with a dedicated state layer and a
+     * given random number generator.
+     * Both phases draw from the same generator.
+     *
+     * @param maze                The maze to build.
+     * @param layer               The layer to display the progress on.
+     * @param startx              The starting x position.
+     * @param starty              The starting y position.
+     * @param rand                The random number generator to draw from.
+     * @param wallOpenProbability The probability of opening a wall during the
+     *                            imperfect phase.
+     */
+    public ImperfectDfsBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, RandomGenerator rand,
+            Integer wallOpenProbability) {
+        super(maze, layer, startx, starty, rand);
         this.wallOpenProbability = wallOpenProbability / 100.0;
-        this.rand = new Random(seed);
     }
 
     @Override
     public Boolean step() {
         // Phase 0: DFS
         if (phase == 0) {
-            if (super.step())
-                return true;
+            Boolean stepped = super.step();
+            if (!finished)
+                return stepped;
+            // The last step of the DFS finishes the builder, go on anyway
             finished = false;
             phase = 1;
             currentX = 0;
             currentY = 0;
-            maze.resetColors();
-            maze.getCell(currentX, currentY).setColor(Color.RED);
+            layer.fill(CellState.UNPROCESSED);
+            layer.setState(maze.getCellId(currentX, currentY), CellState.CURRENT);
+            if (stepped)
+                return true;
         }
 
         // Phase 1: Imperfection phase
         if (super.finished == false) {
             if (rand.nextDouble() < wallOpenProbability) {
-                List<Direction> dirs = Arrays.asList(Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT);
-                Collections.shuffle(dirs, rand);
-                Direction d = dirs.get(0);
+                Direction d = DIRECTIONS[rand.nextInt(DIRECTIONS.length)];
                 Integer nx = currentX + d.getX();
                 Integer ny = currentY + d.getY();
                 if (nx >= 0 && nx <= maze.getWidth() && ny >= 0 && ny <= maze.getHeight()) {
@@ -86,7 +137,7 @@ public class ImperfectDfsBuilder extends DfsBuilder {
                 }
             }
 
-            maze.getCell(currentX, currentY).setColor(Color.BLUE);
+            layer.setState(maze.getCellId(currentX, currentY), CellState.PROCESSED);
 
             currentX++;
             if (currentX > maze.getWidth()) {
@@ -98,7 +149,7 @@ public class ImperfectDfsBuilder extends DfsBuilder {
                 }
             }
 
-            maze.getCell(currentX, currentY).setColor(Color.RED);
+            layer.setState(maze.getCellId(currentX, currentY), CellState.CURRENT);
 
             super.finished = false;
             return true;
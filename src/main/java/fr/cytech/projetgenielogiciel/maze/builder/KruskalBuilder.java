@@ -0,0 +1,260 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.Iterator;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder using Kruskal's algorithm.
+ *
+ * Every wall between two cells is considered once, in a random order, and
+ * removed if the cells are not connected yet, which a DisjointSet of the
+ * cells tells. This gives many short dead ends instead of the long
+ * corridors of a DFS.
+ *
+ * A wall is an int: the ID of its cell shifted left once, plus 1 if it
+ * leads to (x, y + 1) instead of (x + 1, y). The walls are kept in a plain
+ * int array and shuffled as they are drawn, so no object is created per
+ * wall. This limits the mazes to about 2^30 cells.
+ */
+public class KruskalBuilder implements IBuilder {
+
+    /**
+     * Whether the builder is finished building.
+     */
+    private Boolean finished;
+
+    /**
+     * Reference to the maze that the builder is working on
+     */
+    private final Maze maze;
+
+    /**
+     * The layer the builder displays its progress on.
+     */
+    private final StateLayer layer;
+
+    /**
+     * Random generator.
+     */
+    private final RandomGenerator rand;
+
+    /**
+     * The sets of cells already connected together, by cell ID.
+     */
+    private final DisjointSet sets;
+
+    /**
+     * Every wall of the maze. The walls before nextWall were drawn already,
+     * in order, the others are left in any order.
+     */
+    private final int[] walls;
+
+    /**
+     * The index of the next wall to draw.
+     */
+    private int nextWall = 0;
+
+    /**
+     * The cells connected by the last step, displayed as current.
+     * -1 before the first step.
+     */
+    private int lastSource = -1;
+
+    /**
+     * See lastSource.
+     */
+    private int lastTarget = -1;
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param seed seed for the RNG
+     */
+    public KruskalBuilder(Maze maze, Integer seed) {
+        this(maze, maze.getStateLayer(), seed);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param rand the RNG to draw from
+     */
+    public KruskalBuilder(Maze maze, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), rand);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param seed  seed for the RNG
+     */
+    public KruskalBuilder(Maze maze, StateLayer layer, Integer seed) {
+        this(maze, layer, new SplitMix64Random(seed));
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from
+     */
+    public KruskalBuilder(Maze maze, StateLayer layer, RandomGenerator rand) {
+        this.maze = maze;
+        this.layer = layer;
+        this.rand = rand;
+        this.sets = new DisjointSet(maze.getCellCount());
+
+        int columns = maze.getWidth() + 1;
+        int rows = maze.getHeight() + 1;
+        this.walls = new int[(columns - 1) * rows + columns * (rows - 1)];
+        int count = 0;
+        for (int id = 0; id < maze.getCellCount(); id++) {
+            if (maze.getCellX(id) < maze.getWidth()) {
+                walls[count++] = id << 1;
+            }
+            if (maze.getCellY(id) < maze.getHeight()) {
+                walls[count++] = (id << 1) | 1;
+            }
+        }
+
+        this.finished = sets.getSetCount() <= 1;
+    }
+
+    /**
+     * Create an iterator for the builder.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Boolean> iterator() {
+        return new KruskalIterator();
+    }
+
+    /**
+     * Runs as many building steps as possible.
+     *
+     * @return whether the build process could execute a step.
+     */
+    @Override
+    public Boolean build() {
+        Boolean ret = false;
+        for (Boolean stepStatus : this)
+            ret = stepStatus;
+        return ret;
+    }
+
+    /**
+     * Whether the building process is finished.
+     *
+     * @return if the building process is finished
+     */
+    @Override
+    public Boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * INTERNAL USE ONLY!
+     * Iterator implementation for Kruskal. Required to avoid self-referencing.
+     */
+    private class KruskalIterator implements Iterator<Boolean> {
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public Boolean next() {
+            if (finished) {
+                return false;
+            }
+            return step();
+        }
+    }
+
+    /**
+     * Executes a step of Kruskal's algorithm.
+     * A step is considered over once a wall was removed.
+     *
+     * @return whether a step could be executed.
+     */
+    @Override
+    public Boolean step() {
+        if (finished) {
+            return false;
+        }
+
+        while (nextWall < walls.length) {
+            // Draw a random wall among the remaining ones
+            int pick = nextWall + rand.nextInt(walls.length - nextWall);
+            int wall = walls[pick];
+            walls[pick] = walls[nextWall];
+            walls[nextWall++] = wall;
+
+            int source = wall >>> 1;
+            boolean nextRow = (wall & 1) != 0;
+            int target = nextRow ? source + maze.getWidth() + 1 : source + 1;
+
+            if (sets.union(source, target)) {
+                maze.connect(maze.getCellX(source), maze.getCellY(source), nextRow ? Direction.UP : Direction.LEFT);
+                showProgress(source, target);
+                if (sets.getSetCount() == 1) {
+                    showProgress(-1, -1);
+                    this.finished = true;
+                }
+                return true;
+            }
+        }
+
+        showProgress(-1, -1);
+        this.finished = true;
+        return false;
+    }
+
+    /**
+     * Marks the cells connected last as processed, and two new cells as
+     * current.
+     *
+     * @param source the first cell to mark as current, or -1
+     * @param target the second cell to mark as current, or -1
+     */
+    private void showProgress(int source, int target) {
+        if (lastSource >= 0) {
+            layer.setState(lastSource, CellState.PROCESSED);
+            layer.setState(lastTarget, CellState.PROCESSED);
+        }
+        if (source >= 0) {
+            layer.setState(source, CellState.CURRENT);
+            layer.setState(target, CellState.CURRENT);
+        }
+        this.lastSource = source;
+        this.lastTarget = target;
+    }
+
+    /**
+     * Read accessor for the maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
+}
@@ -0,0 +1,60 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.io.Serializable;
+
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+
+/**
+ * Row sink connecting the cells of an in-memory maze.
+ */
+public class MazeRowSink implements IRowSink, Serializable {
+    /**
+     * The maze being built.
+     */
+    private final Maze maze;
+
+    /**
+     * Constructor for a sink writing to a maze.
+     * The maze should start with every wall closed.
+     *
+     * @param maze the maze to connect
+     */
+    public MazeRowSink(Maze maze) {
+        this.maze = maze;
+    }
+
+    /**
+     * Connects the cells of a row to their neighbors.
+     *
+     * @param y     the index of the row
+     * @param links the links of every cell of the row
+     */
+    @Override
+    public void acceptRow(int y, byte[] links) {
+        for (int x = 0; x <= maze.getWidth(); x++) {
+            if ((links[x] & LINK_NEXT_COLUMN) != 0) {
+                maze.connect(x, y, Direction.LEFT);
+            }
+            if ((links[x] & LINK_NEXT_ROW) != 0) {
+                maze.connect(x, y, Direction.UP);
+            }
+        }
+    }
+
+    /**
+     * Nothing to do, the maze is complete.
+     */
+    @Override
+    public void finish() {
+    }
+
+    /**
+     * Get the maze of the sink.
+     *
+     * @return the maze
+     */
+    public Maze getMaze() {
+        return maze;
+    }
+}
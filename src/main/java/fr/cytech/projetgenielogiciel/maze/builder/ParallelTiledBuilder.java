@@ -0,0 +1,518 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.BitGrid;
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder that generates square tiles of the
+ * maze concurrently.
+ *
+ * Every tile is made a perfect maze of its own by a randomized DFS that
+ * never leaves the tile, then the tiles are stitched together: a random
+ * spanning tree of the grid of tiles is drawn with Kruskal's algorithm, and
+ * a single wall is opened on the border of every pair of tiles it links.
+ * The result is a perfect maze.
+ *
+ * Every tile has its own stream of the RNG of the builder, picked by the
+ * index of the tile, and the stitching is sequential on the next stream. The maze thus only
+ * depends on the seed and the tile size, not on the number of threads, nor
+ * on whether it was built with build or step by step.
+ *
+ * build() runs the tiles on a ForkJoinPool. Tiles write straight into a
+ * BIT_GRID maze with atomic updates; with other storage modes, they are
+ * generated concurrently but written to the maze by a single thread.
+ */
+public class ParallelTiledBuilder implements IBuilder {
+
+    /**
+     * The default size of the side of a tile, in cells.
+     */
+    public static final int DEFAULT_TILE_SIZE = 128;
+
+    /**
+     * Whether the builder is finished building.
+     */
+    private Boolean finished = false;
+
+    /**
+     * Reference to the maze that the builder is working on
+     */
+    private final Maze maze;
+
+    /**
+     * The layer the builder displays its progress on.
+     */
+    private final StateLayer layer;
+
+    /**
+     * The generator every stream of the builder is derived from.
+     */
+    private final SplitMix64Random streams;
+
+    /**
+     * The size of the side of a tile, in cells.
+     */
+    private final int tileSize;
+
+    /**
+     * Number of columns of tiles.
+     */
+    private final int tileColumns;
+
+    /**
+     * Number of rows of tiles.
+     */
+    private final int tileRows;
+
+    /**
+     * The index of the next tile to generate.
+     */
+    private int nextTile = 0;
+
+    /**
+     * The pool to run the tiles on, or null for the common pool.
+     * Pools cannot be serialized.
+     */
+    private final transient ForkJoinPool pool;
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param seed seed for the RNG
+     */
+    public ParallelTiledBuilder(Maze maze, Integer seed) {
+        this(maze, maze.getStateLayer(), seed);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param rand the RNG to draw from
+     */
+    public ParallelTiledBuilder(Maze maze, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), rand);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param seed  seed for the RNG
+     */
+    public ParallelTiledBuilder(Maze maze, StateLayer layer, Integer seed) {
+        this(maze, layer, seed, DEFAULT_TILE_SIZE, null);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from
+     */
+    public ParallelTiledBuilder(Maze maze, StateLayer layer, RandomGenerator rand) {
+        this(maze, layer, rand, DEFAULT_TILE_SIZE, null);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer, tile size and pool.
+     *
+     * @param maze     Reference to the maze being worked on.
+     * @param layer    the layer to display the progress on.
+     * @param seed     seed for the RNG
+     * @param tileSize the size of the side of a tile, in cells.
+     * @param pool     the pool to run the tiles on, or null for the common
+     *                 pool.
+     */
+    public ParallelTiledBuilder(Maze maze, StateLayer layer, Integer seed, Integer tileSize, ForkJoinPool pool) {
+        this(maze, layer, new SplitMix64Random(seed), tileSize, pool);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer, RNG, tile size and pool.
+     * A single number is drawn from the RNG, to seed the streams of the
+     * tiles.
+     *
+     * @param maze     Reference to the maze being worked on.
+     * @param layer    the layer to display the progress on.
+     * @param rand     the RNG to draw from
+     * @param tileSize the size of the side of a tile, in cells.
+     * @param pool     the pool to run the tiles on, or null for the common
+     *                 pool.
+     */
+    public ParallelTiledBuilder(Maze maze, StateLayer layer, RandomGenerator rand, Integer tileSize,
+            ForkJoinPool pool) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("The tile size must be positive");
+        }
+        this.maze = maze;
+        this.layer = layer;
+        this.streams = new SplitMix64Random(rand.nextLong());
+        this.tileSize = tileSize;
+        this.tileColumns = (maze.getWidth() + tileSize) / tileSize;
+        this.tileRows = (maze.getHeight() + tileSize) / tileSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Create an iterator for the builder.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Boolean> iterator() {
+        return new ParallelTiledIterator();
+    }
+
+    /**
+     * Generates every remaining tile concurrently, then stitches them.
+     *
+     * @return whether the build process could execute a step.
+     */
+    @Override
+    public Boolean build() {
+        if (finished) {
+            return false;
+        }
+
+        int first = nextTile;
+        int count = tileColumns * tileRows;
+        // Every tile may already have been generated by step()
+        if (first < count) {
+            byte[][] links = new byte[count][];
+            ForkJoinPool target = pool == null ? ForkJoinPool.commonPool() : pool;
+            target.invoke(new TileTask(first, count, links));
+            for (int tile = first; tile < count; tile++) {
+                // Only left over when the maze is not a BIT_GRID
+                if (links[tile] != null) {
+                    writeTile(tile, links[tile]);
+                }
+            }
+            nextTile = count;
+            layer.fill(CellState.PROCESSED);
+        }
+
+        return step();
+    }
+
+    /**
+     * Whether the building process is finished.
+     *
+     * @return if the building process is finished
+     */
+    @Override
+    public Boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * INTERNAL USE ONLY!
+     * Iterator implementation for the builder. Required to avoid
+     * self-referencing.
+     */
+    private class ParallelTiledIterator implements Iterator<Boolean> {
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public Boolean next() {
+            if (finished) {
+                return false;
+            }
+            return step();
+        }
+    }
+
+    /**
+     * Executes a step of the builder, on the calling thread.
+     * A step generates a single tile, the last one stitches every tile.
+     *
+     * @return whether a step could be executed.
+     */
+    @Override
+    public Boolean step() {
+        if (finished) {
+            return false;
+        }
+
+        if (nextTile < tileColumns * tileRows) {
+            int tile = nextTile++;
+            writeTile(tile, generateTile(tile));
+            for (int y = tileY(tile); y < tileY(tile) + tileHeight(tile); y++) {
+                for (int x = tileX(tile); x < tileX(tile) + tileWidth(tile); x++) {
+                    layer.setState(maze.getCellId(x, y), CellState.PROCESSED);
+                }
+            }
+            return true;
+        }
+
+        stitch();
+        this.finished = true;
+        return true;
+    }
+
+    /**
+     * Task generating a range of tiles, split in halves until single tiles.
+     */
+    private class TileTask extends RecursiveAction {
+        /**
+         * The first tile of the range.
+         */
+        private final int from;
+
+        /**
+         * The tile after the last one of the range.
+         */
+        private final int to;
+
+        /**
+         * Where to leave the links of the tiles that could not be written
+         * to the maze concurrently, by tile index.
+         */
+        private final byte[][] links;
+
+        /**
+         * Constructor for a task.
+         *
+         * @param from  the first tile of the range
+         * @param to    the tile after the last one of the range
+         * @param links where to leave the links of the tiles
+         */
+        private TileTask(int from, int to, byte[][] links) {
+            this.from = from;
+            this.to = to;
+            this.links = links;
+        }
+
+        @Override
+        protected void compute() {
+            if (from >= to) {
+                return;
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(from, middle, links), new TileTask(middle, to, links));
+                return;
+            }
+
+            byte[] tileLinks = generateTile(from);
+            BitGrid grid = maze.getBitGrid();
+            if (grid != null) {
+                writeTileAtomic(from, tileLinks, grid);
+            } else {
+                links[from] = tileLinks;
+            }
+        }
+    }
+
+    /**
+     * Generates a tile as a perfect maze of its own, with a randomized DFS.
+     *
+     * @param tile the index of the tile
+     * @return the links of every cell of the tile, in row-major order inside
+     *         the tile, see IRowSink
+     */
+    private byte[] generateTile(int tile) {
+        int width = tileWidth(tile);
+        int height = tileHeight(tile);
+        byte[] links = new byte[width * height];
+        boolean[] visited = new boolean[width * height];
+        int[] stack = new int[width * height];
+        int stackSize = 0;
+        RandomGenerator rand = streams.stream(tile);
+
+        int start = rand.nextInt(width * height);
+        visited[start] = true;
+        stack[stackSize++] = start;
+        while (stackSize > 0) {
+            int cell = stack[stackSize - 1];
+            int x = cell % width;
+            int y = cell / width;
+
+            boolean moved = false;
+            for (Direction direction : Direction.permutation(rand.nextInt(Direction.PERMUTATION_COUNT))) {
+                int targetX = x + direction.getX();
+                int targetY = y + direction.getY();
+                if (targetX < 0 || targetX >= width || targetY < 0 || targetY >= height) {
+                    continue;
+                }
+                int target = targetX + targetY * width;
+                if (visited[target]) {
+                    continue;
+                }
+
+                // The link is stored by the cell with the lowest coordinates
+                switch (direction) {
+                    case LEFT -> links[cell] |= IRowSink.LINK_NEXT_COLUMN;
+                    case RIGHT -> links[target] |= IRowSink.LINK_NEXT_COLUMN;
+                    case UP -> links[cell] |= IRowSink.LINK_NEXT_ROW;
+                    case DOWN -> links[target] |= IRowSink.LINK_NEXT_ROW;
+                }
+                visited[target] = true;
+                stack[stackSize++] = target;
+                moved = true;
+                break;
+            }
+            if (!moved) {
+                stackSize--;
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Writes the links of a tile to the maze.
+     *
+     * @param tile  the index of the tile
+     * @param links the links of every cell of the tile
+     */
+    private void writeTile(int tile, byte[] links) {
+        int width = tileWidth(tile);
+        for (int i = 0; i < links.length; i++) {
+            int x = tileX(tile) + i % width;
+            int y = tileY(tile) + i / width;
+            if ((links[i] & IRowSink.LINK_NEXT_COLUMN) != 0) {
+                maze.connect(x, y, Direction.LEFT);
+            }
+            if ((links[i] & IRowSink.LINK_NEXT_ROW) != 0) {
+                maze.connect(x, y, Direction.UP);
+            }
+        }
+    }
+
+    /**
+     * Writes the links of a tile to the grid of the maze, while other tiles
+     * are written by other threads.
+     *
+     * @param tile  the index of the tile
+     * @param links the links of every cell of the tile
+     * @param grid  the grid of the maze
+     */
+    private void writeTileAtomic(int tile, byte[] links, BitGrid grid) {
+        int width = tileWidth(tile);
+        int columns = maze.getWidth() + 1;
+        for (int i = 0; i < links.length; i++) {
+            int id = maze.getCellId(tileX(tile) + i % width, tileY(tile) + i / width);
+            if ((links[i] & IRowSink.LINK_NEXT_COLUMN) != 0) {
+                grid.setAtomic(id, Direction.LEFT);
+                grid.setAtomic(id + 1, Direction.RIGHT);
+            }
+            if ((links[i] & IRowSink.LINK_NEXT_ROW) != 0) {
+                grid.setAtomic(id, Direction.UP);
+                grid.setAtomic(id + columns, Direction.DOWN);
+            }
+        }
+    }
+
+    /**
+     * Connects the tiles along a random spanning tree of the grid of tiles.
+     * Uses the stream after the one of the last tile, so it is the same for
+     * every run.
+     */
+    private void stitch() {
+        int tileCount = tileColumns * tileRows;
+        RandomGenerator rand = streams.stream(tileCount);
+        DisjointSet sets = new DisjointSet(tileCount);
+
+        // Borders between tiles, like the walls of a KruskalBuilder
+        int[] borders = new int[(tileColumns - 1) * tileRows + tileColumns * (tileRows - 1)];
+        int count = 0;
+        for (int tile = 0; tile < tileCount; tile++) {
+            if (tile % tileColumns < tileColumns - 1) {
+                borders[count++] = tile << 1;
+            }
+            if (tile / tileColumns < tileRows - 1) {
+                borders[count++] = (tile << 1) | 1;
+            }
+        }
+
+        for (int i = 0; i < borders.length && sets.getSetCount() > 1; i++) {
+            int pick = i + rand.nextInt(borders.length - i);
+            int border = borders[pick];
+            borders[pick] = borders[i];
+
+            int tile = border >>> 1;
+            if ((border & 1) == 0) {
+                if (sets.union(tile, tile + 1)) {
+                    int y = tileY(tile) + rand.nextInt(tileHeight(tile));
+                    maze.connect(tileX(tile) + tileWidth(tile) - 1, y, Direction.LEFT);
+                }
+            } else {
+                if (sets.union(tile, tile + tileColumns)) {
+                    int x = tileX(tile) + rand.nextInt(tileWidth(tile));
+                    maze.connect(x, tileY(tile) + tileHeight(tile) - 1, Direction.UP);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the x coordinate of the first column of a tile.
+     *
+     * @param tile the index of the tile
+     * @return the x coordinate
+     */
+    private int tileX(int tile) {
+        return (tile % tileColumns) * tileSize;
+    }
+
+    /**
+     * Get the y coordinate of the first row of a tile.
+     *
+     * @param tile the index of the tile
+     * @return the y coordinate
+     */
+    private int tileY(int tile) {
+        return (tile / tileColumns) * tileSize;
+    }
+
+    /**
+     * Get the number of columns of a tile, smaller on the last column.
+     *
+     * @param tile the index of the tile
+     * @return the width of the tile
+     */
+    private int tileWidth(int tile) {
+        return Math.min(tileSize, maze.getWidth() + 1 - tileX(tile));
+    }
+
+    /**
+     * Get the number of rows of a tile, smaller on the last row.
+     *
+     * @param tile the index of the tile
+     * @return the height of the tile
+     */
+    private int tileHeight(int tile) {
+        return Math.min(tileSize, maze.getHeight() + 1 - tileY(tile));
+    }
+
+    /**
+     * Read accessor for the maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
+}
@@ -0,0 +1,261 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder using a randomized Prim's algorithm.
+ *
+ * The frontier holds every cell that is not in the maze yet but borders a
+ * cell that is. Every step draws a random frontier cell, connects it to a
+ * random neighbor already in the maze, and adds its own new neighbors to
+ * the frontier. This gives many short branches around the start.
+ *
+ * The frontier is a plain int array of cell IDs, removed from by swapping
+ * with the last one, and membership is kept in BitSets, so every step is
+ * O(1) and nothing is allocated.
+ */
+public class PrimBuilder implements IBuilder {
+
+    /**
+     * Every direction, so that values() is not copied on every step.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Whether the builder is finished building.
+     */
+    private Boolean finished;
+
+    /**
+     * Reference to the maze that the builder is working on
+     */
+    private final Maze maze;
+
+    /**
+     * The layer the builder displays its progress on.
+     */
+    private final StateLayer layer;
+
+    /**
+     * Random generator.
+     */
+    private final RandomGenerator rand;
+
+    /**
+     * Holds the set of cells in the maze, by ID.
+     */
+    private final BitSet visited;
+
+    /**
+     * Holds the set of cells in the frontier, by ID.
+     */
+    private final BitSet inFrontier;
+
+    /**
+     * The IDs of the cells of the frontier, in no particular order.
+     */
+    private final int[] frontier;
+
+    /**
+     * The number of cells in the frontier.
+     */
+    private int frontierSize = 0;
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param seed   seed for the RNG
+     */
+    public PrimBuilder(Maze maze, Integer startx, Integer starty, Integer seed) {
+        this(maze, maze.getStateLayer(), startx, starty, seed);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param rand   the RNG to draw from
+     */
+    public PrimBuilder(Maze maze, Integer startx, Integer starty, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), startx, starty, rand);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param layer  the layer to display the progress on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param seed   seed for the RNG
+     */
+    public PrimBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, Integer seed) {
+        this(maze, layer, startx, starty, new SplitMix64Random(seed));
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param layer  the layer to display the progress on.
+     * @param startx starting X position.
+     * @param starty starting Y position.
+     * @param rand   the RNG to draw from
+     */
+    public PrimBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, RandomGenerator rand) {
+        this.maze = maze;
+        this.layer = layer;
+        this.rand = rand;
+        this.visited = new BitSet(maze.getCellCount());
+        this.inFrontier = new BitSet(maze.getCellCount());
+        this.frontier = new int[maze.getCellCount()];
+
+        int start = maze.getCellId(startx, starty);
+        visited.set(start);
+        layer.setState(start, CellState.PROCESSED);
+        addNeighbors(startx, starty);
+        this.finished = frontierSize == 0;
+    }
+
+    /**
+     * Create an iterator for the builder.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Boolean> iterator() {
+        return new PrimIterator();
+    }
+
+    /**
+     * Runs as many building steps as possible.
+     *
+     * @return whether the build process could execute a step.
+     */
+    @Override
+    public Boolean build() {
+        Boolean ret = false;
+        for (Boolean stepStatus : this)
+            ret = stepStatus;
+        return ret;
+    }
+
+    /**
+     * Whether the building process is finished.
+     *
+     * @return if the building process is finished
+     */
+    @Override
+    public Boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * INTERNAL USE ONLY!
+     * Iterator implementation for Prim. Required to avoid self-referencing.
+     */
+    private class PrimIterator implements Iterator<Boolean> {
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public Boolean next() {
+            if (finished) {
+                return false;
+            }
+            return step();
+        }
+    }
+
+    /**
+     * Executes a step of Prim's algorithm.
+     * A step is considered over once a frontier cell was added to the maze.
+     *
+     * @return whether a step could be executed.
+     */
+    @Override
+    public Boolean step() {
+        if (frontierSize == 0) {
+            this.finished = true;
+            return false;
+        }
+
+        // Swap-remove a random frontier cell
+        int pick = rand.nextInt(frontierSize);
+        int cell = frontier[pick];
+        frontier[pick] = frontier[--frontierSize];
+        inFrontier.clear(cell);
+
+        // Connect it to a random neighbor already in the maze
+        int x = maze.getCellX(cell);
+        int y = maze.getCellY(cell);
+        for (Direction direction : Direction.permutation(rand.nextInt(Direction.PERMUTATION_COUNT))) {
+            int targetX = x + direction.getX();
+            int targetY = y + direction.getY();
+            if (maze.isValidCell(targetX, targetY) && visited.get(maze.getCellId(targetX, targetY))) {
+                maze.connect(x, y, direction);
+                break;
+            }
+        }
+
+        visited.set(cell);
+        layer.setState(cell, CellState.PROCESSED);
+        addNeighbors(x, y);
+        this.finished = frontierSize == 0;
+        return true;
+    }
+
+    /**
+     * Adds the neighbors of a cell that are neither in the maze nor in the
+     * frontier to the frontier.
+     *
+     * @param x the x position of the cell
+     * @param y the y position of the cell
+     */
+    private void addNeighbors(int x, int y) {
+        for (Direction direction : DIRECTIONS) {
+            int targetX = x + direction.getX();
+            int targetY = y + direction.getY();
+            if (!maze.isValidCell(targetX, targetY)) {
+                continue;
+            }
+            int target = maze.getCellId(targetX, targetY);
+            if (!visited.get(target) && !inFrontier.get(target)) {
+                inFrontier.set(target);
+                frontier[frontierSize++] = target;
+                layer.setState(target, CellState.CURRENT);
+            }
+        }
+    }
+
+    /**
+     * Read accessor for the maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
+}
@@ -0,0 +1,455 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.BitGrid;
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder using recursive division.
+ *
+ * The maze starts with every wall open, as a single chamber. A chamber is
+ * divided in two by a straight wall across it, with a single passage, and
+ * both halves are divided in turn until they are a single row or column
+ * wide. The walls are long and straight, very unlike the mazes of a DFS.
+ *
+ * Both halves of a chamber are independent once its wall is placed, so
+ * build() divides chambers larger than SEQUENTIAL_CUTOFF cells as
+ * RecursiveActions on a ForkJoinPool, and smaller ones sequentially. Every
+ * chamber draws its wall from its own seed, derived from the seed of the
+ * chamber it was split from, so the maze is the same whatever the number of
+ * threads, and whether it was built with build or step by step.
+ * Walls are placed through Maze.disconnect, or with atomic updates of the
+ * grid of a BIT_GRID maze when chambers are divided concurrently. Other
+ * storage modes are not thread-safe, so build() is sequential for them.
+ */
+public class RecursiveDivisionBuilder implements IBuilder {
+
+    /**
+     * Chambers with at most this many cells are divided sequentially by
+     * build().
+     */
+    public static final int SEQUENTIAL_CUTOFF = 1 << 14;
+
+    /**
+     * Whether the builder is finished building.
+     */
+    private Boolean finished;
+
+    /**
+     * Reference to the maze that the builder is working on
+     */
+    private final Maze maze;
+
+    /**
+     * The layer the builder displays its progress on.
+     */
+    private final StateLayer layer;
+
+    /**
+     * The chambers left to divide.
+     */
+    private final ChamberStack chambers = new ChamberStack();
+
+    /**
+     * The pool to divide chambers on, or null for the common pool.
+     * Pools cannot be serialized.
+     */
+    private final transient ForkJoinPool pool;
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     * Every wall of the maze is opened right away.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param seed seed for the RNG
+     */
+    public RecursiveDivisionBuilder(Maze maze, Integer seed) {
+        this(maze, maze.getStateLayer(), seed);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     * Every wall of the maze is opened right away.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param rand the RNG to draw from
+     */
+    public RecursiveDivisionBuilder(Maze maze, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), rand);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     * Every wall of the maze is opened right away.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param seed  seed for the RNG
+     */
+    public RecursiveDivisionBuilder(Maze maze, StateLayer layer, Integer seed) {
+        this(maze, layer, seed, null);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     * Every wall of the maze is opened right away.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from
+     */
+    public RecursiveDivisionBuilder(Maze maze, StateLayer layer, RandomGenerator rand) {
+        this(maze, layer, rand, null);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and pool.
+     * Every wall of the maze is opened right away.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param seed  seed for the RNG
+     * @param pool  the pool to divide chambers on, or null for the common
+     *              pool.
+     */
+    public RecursiveDivisionBuilder(Maze maze, StateLayer layer, Integer seed, ForkJoinPool pool) {
+        this(maze, layer, new SplitMix64Random(seed), pool);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer, RNG and pool.
+     * Every wall of the maze is opened right away.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from, a single number is drawn to seed the
+     *              first chamber
+     * @param pool  the pool to divide chambers on, or null for the common
+     *              pool.
+     */
+    public RecursiveDivisionBuilder(Maze maze, StateLayer layer, RandomGenerator rand, ForkJoinPool pool) {
+        this.maze = maze;
+        this.layer = layer;
+        this.pool = pool;
+
+        for (int y = 0; y <= maze.getHeight(); y++) {
+            for (int x = 0; x <= maze.getWidth(); x++) {
+                maze.connect(x, y, Direction.LEFT);
+                maze.connect(x, y, Direction.UP);
+            }
+        }
+        chambers.push(0, 0, maze.getWidth() + 1, maze.getHeight() + 1, rand.nextLong());
+        this.finished = false;
+    }
+
+    /**
+     * Create an iterator for the builder.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Boolean> iterator() {
+        return new RecursiveDivisionIterator();
+    }
+
+    /**
+     * Divides every remaining chamber, concurrently if the maze is a
+     * BIT_GRID.
+     *
+     * @return whether the build process could execute a step.
+     */
+    @Override
+    public Boolean build() {
+        if (finished) {
+            return false;
+        }
+
+        BitGrid grid = maze.getBitGrid();
+        if (grid == null) {
+            Boolean ret = false;
+            for (Boolean stepStatus : this)
+                ret = stepStatus;
+            return ret;
+        }
+
+        ForkJoinPool target = pool == null ? ForkJoinPool.commonPool() : pool;
+        target.invoke(new DivisionTask(chambers, grid));
+        layer.fill(CellState.PROCESSED);
+        this.finished = true;
+        return true;
+    }
+
+    /**
+     * Whether the building process is finished.
+     *
+     * @return if the building process is finished
+     */
+    @Override
+    public Boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * INTERNAL USE ONLY!
+     * Iterator implementation for the builder. Required to avoid
+     * self-referencing.
+     */
+    private class RecursiveDivisionIterator implements Iterator<Boolean> {
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public Boolean next() {
+            if (finished) {
+                return false;
+            }
+            return step();
+        }
+    }
+
+    /**
+     * Executes a step of the recursive division, on the calling thread.
+     * A step is considered over once a wall was placed. Chambers that
+     * cannot be divided any more are marked as processed on the way.
+     *
+     * @return whether a step could be executed.
+     */
+    @Override
+    public Boolean step() {
+        while (!chambers.isEmpty()) {
+            chambers.pop();
+            if (divide(chambers.x, chambers.y, chambers.width, chambers.height, chambers.seed, chambers, null)) {
+                return true;
+            }
+            for (int y = chambers.y; y < chambers.y + chambers.height; y++) {
+                for (int x = chambers.x; x < chambers.x + chambers.width; x++) {
+                    layer.setState(maze.getCellId(x, y), CellState.PROCESSED);
+                }
+            }
+        }
+        this.finished = true;
+        return false;
+    }
+
+    /**
+     * Divides a chamber with a wall, and pushes both halves to a stack.
+     *
+     * @param x      the x coordinate of the first column of the chamber
+     * @param y      the y coordinate of the first row of the chamber
+     * @param width  the number of columns of the chamber
+     * @param height the number of rows of the chamber
+     * @param seed   the seed of the chamber
+     * @param out    the stack to push the halves to
+     * @param grid   the grid to update atomically, or null to go through
+     *               Maze.disconnect
+     * @return false if the chamber is too thin to be divided
+     */
+    private boolean divide(int x, int y, int width, int height, long seed, ChamberStack out, BitGrid grid) {
+        if (width < 2 || height < 2) {
+            return false;
+        }
+
+        long wallDraw = Seeds.derive(seed, 1);
+        long passageDraw = Seeds.derive(seed, 2);
+        boolean vertical = width > height || (width == height && (wallDraw & 1) == 0);
+        int columns = maze.getWidth() + 1;
+
+        if (vertical) {
+            // The wall closes the LEFT side of the column wallX
+            int wallX = x + (int) Math.floorMod(wallDraw >>> 1, (long) width - 1);
+            int passageY = y + (int) Math.floorMod(passageDraw, (long) height);
+            for (int cellY = y; cellY < y + height; cellY++) {
+                if (cellY != passageY) {
+                    if (grid == null) {
+                        maze.disconnect(wallX, cellY, Direction.LEFT);
+                    } else {
+                        int id = maze.getCellId(wallX, cellY);
+                        grid.clearAtomic(id, Direction.LEFT);
+                        grid.clearAtomic(id + 1, Direction.RIGHT);
+                    }
+                }
+            }
+            out.push(x, y, wallX - x + 1, height, Seeds.derive(seed, 3));
+            out.push(wallX + 1, y, x + width - wallX - 1, height, Seeds.derive(seed, 4));
+        } else {
+            // The wall closes the UP side of the row wallY
+            int wallY = y + (int) Math.floorMod(wallDraw >>> 1, (long) height - 1);
+            int passageX = x + (int) Math.floorMod(passageDraw, (long) width);
+            for (int cellX = x; cellX < x + width; cellX++) {
+                if (cellX != passageX) {
+                    if (grid == null) {
+                        maze.disconnect(cellX, wallY, Direction.UP);
+                    } else {
+                        int id = maze.getCellId(cellX, wallY);
+                        grid.clearAtomic(id, Direction.UP);
+                        grid.clearAtomic(id + columns, Direction.DOWN);
+                    }
+                }
+            }
+            out.push(x, y, width, wallY - y + 1, Seeds.derive(seed, 3));
+            out.push(x, wallY + 1, width, y + height - wallY - 1, Seeds.derive(seed, 4));
+        }
+        return true;
+    }
+
+    /**
+     * Task dividing chambers. Chambers above the cutoff are split into new
+     * tasks, the others are divided by the task itself.
+     */
+    private class DivisionTask extends RecursiveAction {
+        /**
+         * The chambers to divide.
+         */
+        private final ChamberStack pending;
+
+        /**
+         * The grid of the maze.
+         */
+        private final BitGrid grid;
+
+        /**
+         * Constructor for a task.
+         *
+         * @param pending the chambers to divide
+         * @param grid    the grid of the maze
+         */
+        private DivisionTask(ChamberStack pending, BitGrid grid) {
+            this.pending = pending;
+            this.grid = grid;
+        }
+
+        @Override
+        protected void compute() {
+            List<DivisionTask> forks = new ArrayList<>();
+            while (!pending.isEmpty()) {
+                pending.pop();
+                if ((long) pending.width * pending.height <= SEQUENTIAL_CUTOFF) {
+                    divide(pending.x, pending.y, pending.width, pending.height, pending.seed, pending, grid);
+                } else {
+                    ChamberStack halves = new ChamberStack();
+                    divide(pending.x, pending.y, pending.width, pending.height, pending.seed, halves, grid);
+                    forks.add(new DivisionTask(halves, grid));
+                }
+            }
+            invokeAll(forks);
+        }
+    }
+
+    /**
+     * A stack of chambers, in primitive arrays.
+     * pop() leaves the popped chamber in the public fields.
+     */
+    private static final class ChamberStack implements Serializable {
+        /**
+         * The x, y, width and height of every chamber, one after the other.
+         */
+        private int[] bounds = new int[64];
+
+        /**
+         * The seed of every chamber.
+         */
+        private long[] seeds = new long[16];
+
+        /**
+         * The number of chambers in the stack.
+         */
+        private int size = 0;
+
+        /**
+         * The x coordinate of the chamber popped last.
+         */
+        int x;
+
+        /**
+         * The y coordinate of the chamber popped last.
+         */
+        int y;
+
+        /**
+         * The width of the chamber popped last.
+         */
+        int width;
+
+        /**
+         * The height of the chamber popped last.
+         */
+        int height;
+
+        /**
+         * The seed of the chamber popped last.
+         */
+        long seed;
+
+        /**
+         * Pushes a chamber.
+         *
+         * @param x      the x coordinate of the chamber
+         * @param y      the y coordinate of the chamber
+         * @param width  the width of the chamber
+         * @param height the height of the chamber
+         * @param seed   the seed of the chamber
+         */
+        void push(int x, int y, int width, int height, long seed) {
+            if (size == seeds.length) {
+                seeds = Arrays.copyOf(seeds, size * 2);
+                bounds = Arrays.copyOf(bounds, size * 8);
+            }
+            bounds[size * 4] = x;
+            bounds[size * 4 + 1] = y;
+            bounds[size * 4 + 2] = width;
+            bounds[size * 4 + 3] = height;
+            seeds[size++] = seed;
+        }
+
+        /**
+         * Pops a chamber into the public fields.
+         */
+        void pop() {
+            size--;
+            x = bounds[size * 4];
+            y = bounds[size * 4 + 1];
+            width = bounds[size * 4 + 2];
+            height = bounds[size * 4 + 3];
+            seed = seeds[size];
+        }
+
+        /**
+         * Whether the stack is empty.
+         *
+         * @return true if there is no chamber left
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /**
+     * Read accessor for the maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
+}
@@ -0,0 +1,29 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+/**
+ * Derives independent seeds from a seed, for builders that split their work
+ * into parts which must not depend on the order they run in.
+ */
+final class Seeds {
+    /**
+     * This class only has static methods.
+     */
+    private Seeds() {
+    }
+
+    /**
+     * Derives the seed of a part of the work from the seed of the whole,
+     * with the SplitMix64 finalizer, so that close indices give unrelated
+     * seeds.
+     *
+     * @param seed  the seed of the whole
+     * @param index the index of the part
+     * @return the seed of the part
+     */
+    static long derive(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,116 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder using the sidewinder algorithm.
+ *
+ * Every row is split in runs of cells connected to their next column, at
+ * random, and a single random cell of every run is connected to the next
+ * row. The last row is a straight corridor. Unlike the binary tree, every
+ * cell of a run shares the same way out, which gives less biased mazes,
+ * while rows still do not depend on each other.
+ */
+public class SidewinderBuilder extends AbstractRowBuilder {
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param seed seed for the RNG
+     */
+    public SidewinderBuilder(Maze maze, Integer seed) {
+        this(maze, maze.getStateLayer(), seed);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze Reference to the maze being worked on.
+     * @param rand the RNG to draw from
+     */
+    public SidewinderBuilder(Maze maze, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), rand);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param seed  seed for the RNG
+     */
+    public SidewinderBuilder(Maze maze, StateLayer layer, Integer seed) {
+        this(maze, layer, seed, null);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from
+     */
+    public SidewinderBuilder(Maze maze, StateLayer layer, RandomGenerator rand) {
+        this(maze, layer, rand, null);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and pool.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param seed  seed for the RNG
+     * @param pool  the pool to generate rows on, or null for the common pool.
+     */
+    public SidewinderBuilder(Maze maze, StateLayer layer, Integer seed, ForkJoinPool pool) {
+        this(maze, layer, new SplitMix64Random(seed), pool);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer, RNG and pool.
+     *
+     * @param maze  Reference to the maze being worked on.
+     * @param layer the layer to display the progress on.
+     * @param rand  the RNG to draw from
+     * @param pool  the pool to generate rows on, or null for the common pool.
+     */
+    public SidewinderBuilder(Maze maze, StateLayer layer, RandomGenerator rand, ForkJoinPool pool) {
+        super(maze, layer, rand, pool);
+    }
+
+    /**
+     * Splits a row in runs, and links every run to the next row.
+     *
+     * @param y     the index of the row
+     * @param rand  the RNG of the row
+     * @param links the links of every cell of the row
+     */
+    @Override
+    protected void generateRow(int y, RandomGenerator rand, byte[] links) {
+        int lastX = links.length - 1;
+        if (y == maze.getHeight()) {
+            for (int x = 0; x < lastX; x++) {
+                links[x] = IRowSink.LINK_NEXT_COLUMN;
+            }
+            return;
+        }
+
+        int runStart = 0;
+        for (int x = 0; x <= lastX; x++) {
+            if (x < lastX && rand.nextBoolean()) {
+                links[x] |= IRowSink.LINK_NEXT_COLUMN;
+            } else {
+                // Close the run, through one of its cells
+                links[runStart + rand.nextInt(x - runStart + 1)] |= IRowSink.LINK_NEXT_ROW;
+                runStart = x + 1;
+            }
+        }
+    }
+}
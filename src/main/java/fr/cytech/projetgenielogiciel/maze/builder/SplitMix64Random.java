@@ -0,0 +1,70 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.io.Serializable;
+import java.util.random.RandomGenerator;
+
+/**
+ * A small and fast RNG for the builders, using the SplitMix64 algorithm.
+ *
+ * Unlike java.util.Random, drawing a number is a plain addition and a few
+ * multiplications, without any atomic update, and unlike SplittableRandom
+ * it can be serialized along with the builder.
+ *
+ * Builders that split their work into parts, such as tiles or rows, give
+ * every part its own generator with stream(index). A stream only depends on
+ * the seed of this generator and the index of the part, so the maze is the
+ * same whatever the order the parts run in, serially or in parallel.
+ */
+public final class SplitMix64Random implements RandomGenerator, Serializable {
+
+    /**
+     * The increment of the state, the odd integer closest to 2^64 divided by
+     * the golden ratio.
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The seed the generator was created with, streams are derived from it.
+     */
+    private final long seed;
+
+    /**
+     * The current state of the generator.
+     */
+    private long state;
+
+    /**
+     * Constructor.
+     *
+     * @param seed seed for the RNG
+     */
+    public SplitMix64Random(long seed) {
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    /**
+     * Draws the next 64 bits of the sequence.
+     *
+     * @return a random long
+     */
+    @Override
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Creates the generator of a part of the work.
+     * Only depends on the seed this generator was created with, not on what
+     * was drawn from it, so it can be called from any thread.
+     *
+     * @param index the index of the part
+     * @return a new generator, always the same for a given seed and index
+     */
+    public SplitMix64Random stream(long index) {
+        return new SplitMix64Random(Seeds.derive(seed, index));
+    }
+}
@@ -0,0 +1,295 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.random.RandomGenerator;
+
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Implements a perfect maze builder using Wilson's algorithm.
+ *
+ * The maze starts as a tree made of the starting cell only. Then, from every
+ * cell that is not in the tree yet, a random walk goes on until it reaches
+ * the tree, and the walk, with its loops erased, is added to the tree. The
+ * result is a uniform spanning tree: every perfect maze of the grid is as
+ * likely, unlike with a DFS or a BFS.
+ *
+ * The walk only stores the last direction it left every cell by, one byte
+ * per cell. Following these directions from the start of the walk gives the
+ * walk with its loops erased, since a loop overwrites the direction of the
+ * cell it closes on. Nothing is allocated while walking.
+ */
+public class WilsonBuilder implements IBuilder {
+
+    /**
+     * Every direction, by ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Whether the builder is finished building.
+     */
+    private Boolean finished;
+
+    /**
+     * Reference to the maze that the builder is working on
+     */
+    private final Maze maze;
+
+    /**
+     * The layer the builder displays its progress on.
+     */
+    private final StateLayer layer;
+
+    /**
+     * Random generator.
+     */
+    private final RandomGenerator rand;
+
+    /**
+     * Holds the set of cells in the tree, by ID.
+     */
+    private final BitSet inTree;
+
+    /**
+     * The ordinal of the direction the walk last left every cell by.
+     * Only meaningful for the cells on the current walk.
+     */
+    private final byte[] directions;
+
+    /**
+     * The number of cells not in the tree yet.
+     */
+    private int remaining;
+
+    /**
+     * The ID of the cell to look for the start of the next walk from.
+     * Every cell before it is in the tree.
+     */
+    private int scan = 0;
+
+    /**
+     * The ID of the cell the current walk started from.
+     */
+    private int walkStart = -1;
+
+    /**
+     * The ID of the cell the walk is on, while walking, or of the next cell
+     * to add to the tree, while carving. -1 between two walks.
+     */
+    private int walker = -1;
+
+    /**
+     * Whether the current walk reached the tree and is being added to it.
+     */
+    private boolean carving = false;
+
+    /**
+     * Constructor.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param startx X position of the first cell of the tree.
+     * @param starty Y position of the first cell of the tree.
+     * @param seed   seed for the RNG
+     */
+    public WilsonBuilder(Maze maze, Integer startx, Integer starty, Integer seed) {
+        this(maze, maze.getStateLayer(), startx, starty, seed);
+    }
+
+    /**
+     * Constructor, with a given RNG.
+     * The progress is displayed on the default state layer of the maze.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param startx X position of the first cell of the tree.
+     * @param starty Y position of the first cell of the tree.
+     * @param rand   the RNG to draw from
+     */
+    public WilsonBuilder(Maze maze, Integer startx, Integer starty, RandomGenerator rand) {
+        this(maze, maze.getStateLayer(), startx, starty, rand);
+    }
+
+    /**
+     * Constructor, with a dedicated state layer.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param layer  the layer to display the progress on.
+     * @param startx X position of the first cell of the tree.
+     * @param starty Y position of the first cell of the tree.
+     * @param seed   seed for the RNG
+     */
+    public WilsonBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, Integer seed) {
+        this(maze, layer, startx, starty, new SplitMix64Random(seed));
+    }
+
+    /**
+     * Constructor, with a dedicated state layer and a given RNG.
+     *
+     * @param maze   Reference to the maze being worked on.
+     * @param layer  the layer to display the progress on.
+     * @param startx X position of the first cell of the tree.
+     * @param starty Y position of the first cell of the tree.
+     * @param rand   the RNG to draw from
+     */
+    public WilsonBuilder(Maze maze, StateLayer layer, Integer startx, Integer starty, RandomGenerator rand) {
+        this.maze = maze;
+        this.layer = layer;
+        this.rand = rand;
+        this.inTree = new BitSet(maze.getCellCount());
+        this.directions = new byte[maze.getCellCount()];
+
+        int root = maze.getCellId(startx, starty);
+        inTree.set(root);
+        layer.setState(root, CellState.PROCESSED);
+        this.remaining = maze.getCellCount() - 1;
+        this.finished = remaining == 0;
+    }
+
+    /**
+     * Create an iterator for the builder.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Boolean> iterator() {
+        return new WilsonIterator();
+    }
+
+    /**
+     * Runs as many building steps as possible.
+     *
+     * @return whether the build process could execute a step.
+     */
+    @Override
+    public Boolean build() {
+        Boolean ret = false;
+        for (Boolean stepStatus : this)
+            ret = stepStatus;
+        return ret;
+    }
+
+    /**
+     * Whether the building process is finished.
+     *
+     * @return if the building process is finished
+     */
+    @Override
+    public Boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * INTERNAL USE ONLY!
+     * Iterator implementation for Wilson. Required to avoid self-referencing.
+     */
+    private class WilsonIterator implements Iterator<Boolean> {
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public Boolean next() {
+            if (finished) {
+                return false;
+            }
+            return step();
+        }
+    }
+
+    /**
+     * Executes a step of Wilson's algorithm.
+     * A step is either a single move of the random walk, or the addition of
+     * a single cell of the walk to the tree.
+     *
+     * @return whether a step could be executed.
+     */
+    @Override
+    public Boolean step() {
+        if (finished) {
+            return false;
+        }
+
+        if (carving) {
+            carve();
+        } else if (walker < 0) {
+            // Start a new walk from the first cell out of the tree
+            scan = inTree.nextClearBit(scan);
+            walkStart = scan;
+            walker = scan;
+            layer.setState(walker, CellState.CURRENT);
+        } else {
+            walk();
+        }
+        return true;
+    }
+
+    /**
+     * Moves the walk to a random neighbor.
+     */
+    private void walk() {
+        int x = maze.getCellX(walker);
+        int y = maze.getCellY(walker);
+
+        // Draw until the neighbor is in the maze, which keeps it uniform
+        Direction direction;
+        int targetX;
+        int targetY;
+        do {
+            direction = DIRECTIONS[rand.nextInt(DIRECTIONS.length)];
+            targetX = x + direction.getX();
+            targetY = y + direction.getY();
+        } while (targetX < 0 || targetX > maze.getWidth() || targetY < 0 || targetY > maze.getHeight());
+
+        directions[walker] = (byte) direction.ordinal();
+        layer.setState(walker, CellState.UNPROCESSED);
+        walker = maze.getCellId(targetX, targetY);
+
+        if (inTree.get(walker)) {
+            carving = true;
+            walker = walkStart;
+        } else {
+            layer.setState(walker, CellState.CURRENT);
+        }
+    }
+
+    /**
+     * Adds the next cell of the loop-erased walk to the tree.
+     */
+    private void carve() {
+        Direction direction = DIRECTIONS[directions[walker]];
+        int x = maze.getCellX(walker);
+        int y = maze.getCellY(walker);
+        maze.connect(x, y, direction);
+        inTree.set(walker);
+        layer.setState(walker, CellState.PROCESSED);
+        remaining--;
+
+        walker = maze.getCellId(x + direction.getX(), y + direction.getY());
+        if (inTree.get(walker)) {
+            carving = false;
+            walker = -1;
+            this.finished = remaining == 0;
+        }
+    }
+
+    /**
+     * Read accessor for the maze.
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
+}
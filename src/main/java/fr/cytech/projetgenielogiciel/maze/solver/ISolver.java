@@ -2,16 +2,21 @@ package fr.cytech.projetgenielogiciel.maze.solver;
 
 import java.io.Serializable;
 import java.util.Iterator;
+import java.util.List;
 
+import fr.cytech.projetgenielogiciel.maze.IMazeGraph;
+import fr.cytech.projetgenielogiciel.maze.ISteppable;
 import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 
 /**
  * Interface defining a maze solver.
  * A maze solver is not a constructor, rather,
  * it solves a valid maze, depending on the implementation.
  * See: AStarSolver and DijkstraSolver.
+ * Many steps can be run at once with step(int) and runFor.
  */
-public interface ISolver extends Iterable<Boolean>, Serializable {
+public interface ISolver extends Iterable<Boolean>, ISteppable, Serializable {
     /**
      * Runs a single step of the solving process.
      *
@@ -44,6 +49,63 @@ public interface ISolver extends Iterable<Boolean>, Serializable {
 
     /**
      * Gets the maze associated to the solver.
+     * Null if the solver was given a graph that is not a maze.
      */
     public Maze getMaze();
+
+    /**
+     * Gets the state layer the solver displays its progress on.
+     * This is the default layer of the maze unless the solver was given
+     * its own, in which case the maze is never written to by the solver.
+     *
+     * @return the state layer of the solver
+     */
+    public StateLayer getStateLayer();
+
+    /**
+     * Returns whether the solver is headless.
+     * A headless solver never touches its state layer, and only computes the
+     * path. This is meant for batch solving, where nothing is displayed.
+     *
+     * @return Whether the solver is headless
+     */
+    public Boolean isHeadless();
+
+    /**
+     * Sets whether the solver is headless.
+     * This should be set before the first step, as switching it mid-way
+     * leaves the state layer in an inconsistent state.
+     *
+     * @param headless Whether the solver should be headless
+     */
+    public void setHeadless(Boolean headless);
+
+    /**
+     * Makes the solver read the connections of its maze from another view
+     * of it, typically a CsrGraph snapshot. Neighbors are then read by plain
+     * array indexing, and the snapshot can be shared by many solvers at
+     * once. This should be set before the first step.
+     *
+     * @param graph a view of the maze of the solver, or null to read the
+     *              maze directly again
+     * @throws IllegalArgumentException if the graph does not have the same
+     *                                  cells as the maze
+     */
+    public void setGraph(IMazeGraph graph);
+
+    /**
+     * Gets the topology the solver reads.
+     * This is the maze unless the solver was given another graph.
+     *
+     * @return the graph of the solver
+     */
+    public IMazeGraph getGraph();
+
+    /**
+     * Gets the path found by the solver, once it is finished.
+     *
+     * @return The IDs of the cells of the path, from the start to the end,
+     *         or an empty list if no path was found
+     */
+    public List<Integer> getPath();
 }
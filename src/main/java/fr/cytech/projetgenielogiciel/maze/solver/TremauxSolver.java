@@ -1,20 +1,38 @@
 package fr.cytech.projetgenielogiciel.maze.solver;
 
 import fr.cytech.projetgenielogiciel.maze.Cell;
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.IMazeGraph;
 import fr.cytech.projetgenielogiciel.maze.Maze;
-import javafx.scene.paint.Color;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 
 import java.util.*;
 
 /**
  * Class to solve a maze using the Tremaux algorithm.
+ *
+ * Cells are handled through their ID: the marks are an int array indexed
+ * by ID and the path an int stack, so no step allocates anything.
+ * The solver only reads the topology through an IMazeGraph, so it runs on
+ * any maze storage, or on a snapshot of a maze.
  */
 public class TremauxSolver implements ISolver {
     /**
      * The maze to be solved.
+     * Null if the solver was given a graph that is not a maze.
      */
     protected Maze maze;
 
+    /**
+     * The topology the solver reads, the maze itself unless set otherwise.
+     */
+    protected IMazeGraph graph;
+
+    /**
+     * The layer the solver displays its progress on.
+     */
+    protected StateLayer layer;
+
     /**
      * Whether the maze is solved or not.
      */
@@ -31,53 +49,67 @@ public class TremauxSolver implements ISolver {
     protected Cell end;
 
     /**
-     * The current cell.
+     * The ID of the current cell.
+     */
+    protected int current;
+
+    /**
+     * The number of times each cell has been visited, by ID.
+     */
+    protected int[] marks;
+
+    /**
+     * The IDs of the cells of the currently kept path, as a stack.
+     */
+    protected int[] path;
+
+    /**
+     * The number of cells in the path.
      */
-    protected Cell current;
+    protected int pathSize = 0;
 
     /**
-     * The map representing the number of times each cell has been visited.
+     * Buffer for the neighbors of the current cell.
      */
-    protected Map<Integer, Integer> marks;
+    private final int[] neighbors = new int[4];
 
     /**
-     * The currently kept path.
+     * Whether the solver skips every display related work.
      */
-    protected Stack<Cell> path;
+    protected boolean headless = false;
 
     /**
      * Constructor for the Tremaux solver.
+     * The progress is displayed on the default state layer of the maze.
      *
      * @param maze  The maze to be solved.
      * @param start The starting cell.
      * @param end   The target cell.
      */
     public TremauxSolver(Maze maze, Cell start, Cell end) {
+        this(maze, maze == null ? null : maze.getStateLayer(), start, end);
+    }
+
+    /**
+     * Constructor for the Tremaux solver, with a dedicated state layer.
+     * The maze is only read, so several solvers with their own layers may
+     * work on the same maze at once.
+     *
+     * @param maze  The maze to be solved.
+     * @param layer The layer to display the progress on.
+     * @param start The starting cell.
+     * @param end   The target cell.
+     */
+    public TremauxSolver(Maze maze, StateLayer layer, Cell start, Cell end) {
         try {
             if (maze == null) {
                 throw new IllegalArgumentException("Maze cannot be null");
             }
             this.maze = maze;
-            this.solved = false;
+            this.graph = maze;
             this.start = start;
             this.end = end;
-            this.current = start;
-            this.marks = new HashMap<>();
-            this.path = new Stack<>();
-
-            // Initialize marks for all cells
-            for (int x = 0; x <= maze.getWidth(); x++) {
-                for (int y = 0; y <= maze.getHeight(); y++) {
-                    Cell cell = maze.getCell(x, y);
-                    if (cell != null) {
-                        marks.put(cell.getId(), 0);
-                    }
-                }
-            }
-            // Mark the starting cell once
-            marks.put(start.getId(), 1);
-            path.push(start);
-            start.setColor(Color.BLUE);
+            initialize(layer, start.getId());
         }
 
         catch (Exception e) {
@@ -85,6 +117,45 @@ public class TremauxSolver implements ISolver {
         }
     }
 
+    /**
+     * Constructor for the Tremaux solver, for any graph.
+     * The graph is only read, so several solvers with their own layers may
+     * work on the same graph at once.
+     *
+     * @param graph The graph to be solved.
+     * @param layer The layer to display the progress on, covering every cell
+     *              of the graph.
+     * @param start The ID of the starting cell.
+     * @param end   The ID of the target cell.
+     */
+    public TremauxSolver(IMazeGraph graph, StateLayer layer, int start, int end) {
+        this.maze = graph instanceof Maze ? (Maze) graph : null;
+        this.graph = graph;
+        this.start = new Cell(layer, start);
+        this.end = new Cell(layer, end);
+        initialize(layer, start);
+    }
+
+    /**
+     * Sets up the marks and the path, and marks the starting cell.
+     *
+     * @param layer The layer to display the progress on.
+     * @param start The ID of the starting cell.
+     */
+    private void initialize(StateLayer layer, int start) {
+        this.layer = layer;
+        this.solved = false;
+        this.current = start;
+        // Every cell starts unmarked
+        this.marks = new int[graph.getCellCount()];
+        this.path = new int[16];
+
+        // Mark the starting cell once
+        marks[current] = 1;
+        push(current);
+        layer.setState(current, CellState.PROCESSED);
+    }
+
     /**
      * Execute a single step of the Tremaux algorithm.
      *
@@ -95,33 +166,39 @@ public class TremauxSolver implements ISolver {
             return false;
         }
 
-        if (current.getId() == end.getId()) {
+        if (current == end.getId()) {
             solved = true;
             // the end has been reached so put the path in green
-            for (Cell cell : path) {
-                cell.setColor(Color.GREEN);
+            if (!headless) {
+                for (int i = 0; i < pathSize; i++) {
+                    layer.setState(path[i], CellState.IN_PATH);
+                }
+                layer.setState(end.getId(), CellState.IN_PATH);
             }
-            end.setColor(Color.GREEN);
             return true;
         }
 
-        Cell nextCell = getNextCell();
+        int nextCell = getNextCell();
 
-        if (nextCell == null) { // if there is a "cul de sac", go back to the previous cell
-            if (path.isEmpty()) { // if no solution
+        if (nextCell < 0) { // if there is a "cul de sac", go back to the previous cell
+            if (pathSize == 0) { // if no solution
                 solved = true;
             } else {
-                current.setColor(Color.BLUE);
-                current = path.pop();
-                current.setColor(Color.RED);
+                if (!headless)
+                    layer.setState(current, CellState.PROCESSED);
+                current = path[--pathSize];
+                if (!headless)
+                    layer.setState(current, CellState.CURRENT);
             }
         } else {
             // go to the next cell
-            current.setColor(Color.GREEN);
-            path.push(current);
+            if (!headless)
+                layer.setState(current, CellState.IN_PATH);
+            push(current);
             current = nextCell;
-            marks.put(current.getId(), marks.get(current.getId()) + 1);
-            current.setColor(Color.RED);
+            marks[current]++;
+            if (!headless)
+                layer.setState(current, CellState.CURRENT);
         }
 
         return true;
@@ -133,7 +210,7 @@ public class TremauxSolver implements ISolver {
      * @return true if a step was successful, false if nothing was done
      */
     public Boolean solve() {
-        if (current == end) {
+        if (current == end.getId()) {
             return false;
         }
         Boolean ret = true; // need ret to detect problems in the solution
@@ -180,43 +257,131 @@ public class TremauxSolver implements ISolver {
         return solved;
     }
 
+    /**
+     * Whether the solver skips every display related work.
+     *
+     * @return true if the solver is headless
+     */
+    @Override
+    public Boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Set whether the solver skips every display related work.
+     *
+     * @param headless true to stop updating the state layer
+     */
+    @Override
+    public void setHeadless(Boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * Get the path found by the solver, from the start to the end.
+     * Cells the solver backtracked from are not part of the path.
+     *
+     * @return the IDs of the cells of the path, or an empty list if no path
+     *         was found (yet)
+     */
+    @Override
+    public List<Integer> getPath() {
+        if (!solved || current != end.getId()) {
+            return List.of();
+        }
+
+        List<Integer> ids = new ArrayList<>(pathSize + 1);
+        for (int i = 0; i < pathSize; i++) {
+            // The start is pushed twice, once at initialization and once when leaving it
+            if (ids.isEmpty() || ids.get(ids.size() - 1) != path[i]) {
+                ids.add(path[i]);
+            }
+        }
+        if (ids.isEmpty() || !ids.get(ids.size() - 1).equals(end.getId())) {
+            ids.add(end.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Makes the solver read the connections from another view of its maze.
+     *
+     * @param graph a view of the maze, e.g. a snapshot, or null to read the
+     *              maze directly
+     */
+    @Override
+    public void setGraph(IMazeGraph graph) {
+        if (graph == null) {
+            graph = maze;
+        }
+        if (graph == null || graph.getCellCount() != marks.length) {
+            throw new IllegalArgumentException("The graph does not match the maze");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Get the topology the solver reads.
+     *
+     * @return the graph of the solver
+     */
+    @Override
+    public IMazeGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Push a cell on the path, growing it if needed.
+     *
+     * @param id the ID of the cell
+     */
+    private void push(int id) {
+        if (pathSize == path.length) {
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+        path[pathSize++] = id;
+    }
+
     /**
      * Search the next cell, firstly with mark=0 then secondly with mark=1
      * 
-     * @return the next cell
+     * @return the ID of the next cell, or -1 if there is none
      */
-    private Cell getNextCell() {
-        List<Integer> neighbors = maze.getAdjacencyList().getNeighbors(current.getId());
-        Cell nextCell = null;
+    private int getNextCell() {
+        int count = graph.getNeighbors(current, neighbors);
 
         // Search unvisited cell (with mark=0)
-        for (Integer neighborId : neighbors) {
-            Cell neighbor = maze.findCellById(neighborId);
-            if (marks.get(neighbor.getId()) == 0) {
-                nextCell = neighbor;
-                break;
+        for (int i = 0; i < count; i++) {
+            if (marks[neighbors[i]] == 0) {
+                return neighbors[i];
             }
         }
 
         // Search cells which has benn visited only one time (with mark=1)
-        if (nextCell == null) { // if there is no cells with mark=0
-            for (Integer neighborId : neighbors) {
-                Cell neighbor = maze.findCellById(neighborId);
-                if (marks.get(neighbor.getId()) == 1 && !neighbor.equals(path.peek())) {
-                    nextCell = neighbor;
-                    break;
-                }
+        int previous = pathSize > 0 ? path[pathSize - 1] : -1;
+        for (int i = 0; i < count; i++) {
+            if (marks[neighbors[i]] == 1 && neighbors[i] != previous) {
+                return neighbors[i];
             }
         }
 
-        return nextCell;
+        return -1;
     }
 
     /**
      * Read accessor for the maze.
+     * Null if the solver was given a graph that is not a maze.
      */
     @Override
     public Maze getMaze() {
         return maze;
     }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
 }
@@ -1,7 +1,9 @@
 package fr.cytech.projetgenielogiciel.maze.solver.astar;
 
 import fr.cytech.projetgenielogiciel.maze.Cell;
+import fr.cytech.projetgenielogiciel.maze.IMazeGraph;
 import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 
 /**
  * A* implementation using Djikstra's heuristic.
@@ -15,11 +17,36 @@ public class AStarDjikstraSolver extends AStarSolver {
      * @param end   The ending cell.
      */
     public AStarDjikstraSolver(Maze maze, Cell start, Cell end) {
-        super(maze, start, end, 0, 0);
+        super(maze, start, end, 1, 0);
+    }
+
+    /**
+     * Constructor for the A* solver using Djikstra's heuristic, with a
+     * dedicated state layer.
+     *
+     * @param maze  The maze to solve.
+     * @param layer The layer to display the progress on.
+     * @param start The starting cell.
+     * @param end   The ending cell.
+     */
+    public AStarDjikstraSolver(Maze maze, StateLayer layer, Cell start, Cell end) {
+        super(maze, layer, start, end, 1, 0);
+    }
+
+    /**
+     * Constructor for the A* solver using Djikstra's heuristic, for any graph.
+     *
+     * @param graph The graph to solve.
+     * @param layer The layer to display the progress on.
+     * @param start The ID of the starting cell.
+     * @param end   The ID of the ending cell.
+     */
+    public AStarDjikstraSolver(IMazeGraph graph, StateLayer layer, int start, int end) {
+        super(graph, layer, start, end, 1, 0);
     }
 
     @Override
-    protected Double heuristic(Cell c) {
+    protected double heuristic(int id) {
         return 0.0;
     }
 }
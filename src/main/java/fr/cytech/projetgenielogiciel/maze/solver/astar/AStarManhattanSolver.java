@@ -1,8 +1,9 @@
 package fr.cytech.projetgenielogiciel.maze.solver.astar;
 
 import fr.cytech.projetgenielogiciel.maze.Cell;
+import fr.cytech.projetgenielogiciel.maze.IMazeGraph;
 import fr.cytech.projetgenielogiciel.maze.Maze;
-import fr.cytech.projetgenielogiciel.maze.Maze.Position;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 
 /**
  * A* implementation using the Manhattan distance as a heuristic.
@@ -21,18 +22,40 @@ public class AStarManhattanSolver extends AStarSolver {
         super(maze, start, end, distanceFactor, heuristicFactor);
     }
 
-    @Override
-    protected Double heuristic(Cell c) {
-        Position startCoords = this.maze.findCoordinates(start);
-        Position endCoords = this.maze.findCoordinates(end);
-        Position currentCoords = this.maze.findCoordinates(c);
-
-        if (startCoords == null || endCoords == null || currentCoords == null) {
-            return Double.MAX_VALUE;
-        }
+    /**
+     * Constructor for the A* solver using the Manhattan distance heuristic, with a
+     * dedicated state layer.
+     *
+     * @param maze            The maze to solve.
+     * @param layer           The layer to display the progress on.
+     * @param start           The starting cell.
+     * @param end             The ending cell.
+     * @param distanceFactor  The distance factor for the heuristic.
+     * @param heuristicFactor The heuristic factor for the heuristic.
+     */
+    public AStarManhattanSolver(Maze maze, StateLayer layer, Cell start, Cell end, double distanceFactor,
+            double heuristicFactor) {
+        super(maze, layer, start, end, distanceFactor, heuristicFactor);
+    }
 
-        return Double
-                .valueOf(Math.abs(currentCoords.x() - endCoords.x()) + Math.abs(currentCoords.y() - endCoords.y()));
+    /**
+     * Constructor for the A* solver using the Manhattan distance heuristic, for
+     * any graph.
+     *
+     * @param graph           The graph to solve.
+     * @param layer           The layer to display the progress on.
+     * @param start           The ID of the starting cell.
+     * @param end             The ID of the ending cell.
+     * @param distanceFactor  The distance factor for the heuristic.
+     * @param heuristicFactor The heuristic factor for the heuristic.
+     */
+    public AStarManhattanSolver(IMazeGraph graph, StateLayer layer, int start, int end, double distanceFactor,
+            double heuristicFactor) {
+        super(graph, layer, start, end, distanceFactor, heuristicFactor);
     }
 
+    @Override
+    protected double heuristic(int id) {
+        return Math.abs(graph.getCellX(id) - endX) + Math.abs(graph.getCellY(id) - endY);
+    }
 }
@@ -1,52 +1,66 @@
 package fr.cytech.projetgenielogiciel.maze.solver.astar;
 
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 import fr.cytech.projetgenielogiciel.maze.Cell;
+import fr.cytech.projetgenielogiciel.maze.CellState;
+import fr.cytech.projetgenielogiciel.maze.IMazeGraph;
 import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 import fr.cytech.projetgenielogiciel.maze.solver.ISolver;
-import javafx.scene.paint.Color;
 
 /**
  * Abstract class representing an A* solver.
  *
- * The heuristic should be provided through inheritance
+ * The heuristic should be provided through inheritance.
+ * The solver only reads the topology through an IMazeGraph, so it runs on
+ * any maze storage, or on a snapshot of a maze.
+ * Every score is kept in a primitive array indexed by cell ID, and the open
+ * set is an IndexedMinHeap, so no step allocates or boxes anything.
  */
 public abstract class AStarSolver implements ISolver {
 
     /**
      * Reference to the maze that the solver is using.
+     * Null if the solver was given a graph that is not a maze.
      */
     protected Maze maze;
 
     /**
-     * Whether the maze is solved or not.
+     * The topology the solver reads, the maze itself unless set otherwise.
      */
-    protected boolean solved = false;
+    protected IMazeGraph graph;
 
     /**
-     * Map representing the distance from the start for each cell.
+     * The layer the solver displays its progress on.
      */
-    protected Map<Integer, Double> gScore;
+    protected StateLayer layer;
+
+    /**
+     * Whether the maze is solved or not.
+     */
+    protected boolean solved = false;
 
     /**
-     * Map representing the estimated total distance g + h for each cell.
+     * The distance from the start for each cell, Integer.MAX_VALUE if the
+     * cell was never reached.
      */
-    protected Map<Integer, Double> fScore;
+    protected int[] gScore;
 
     /**
-     * A priority queue of the cells that need to be processed.
+     * The queue of the cells that need to be processed.
+     * It also holds the estimated total distance g + h for each cell.
      */
-    protected PriorityQueue<Cell> openSet;
+    protected IndexedMinHeap openSet;
 
     /**
-     * The stack representing the final path.
+     * The cell each cell was reached from, -1 if none.
      */
-    protected Map<Integer, Integer> cameFrom;
+    protected int[] cameFrom;
 
     /**
      * The starting cell.
@@ -59,9 +73,19 @@ public abstract class AStarSolver implements ISolver {
     protected Cell end;
 
     /**
-     * The current cell.
+     * The ID of the current cell.
      */
-    protected Cell current;
+    protected int current;
+
+    /**
+     * The x coordinate of the target cell, cached for the heuristics.
+     */
+    protected final int endX;
+
+    /**
+     * The y coordinate of the target cell, cached for the heuristics.
+     */
+    protected final int endY;
 
     /**
      * The factor for the distance from the start.
@@ -78,8 +102,19 @@ public abstract class AStarSolver implements ISolver {
      */
     private Boolean initialized = false;
 
+    /**
+     * Whether the solver skips every display related work.
+     */
+    protected boolean headless = false;
+
+    /**
+     * Buffer for the neighbors of the current cell.
+     */
+    private final int[] neighbors = new int[4];
+
     /**
      * Abstract constructor.
+     * The progress is displayed on the default state layer of the maze.
      * 
      * @param maze  The maze to be solved
      * @param start the starting cell
@@ -88,22 +123,70 @@ public abstract class AStarSolver implements ISolver {
      * @pondH the factor for the estimated distance from the end (Heuristic-based)
      */
     public AStarSolver(Maze maze, Cell start, Cell end, double distanceFactor, double heuristicFactor) {
+        this(maze, maze.getStateLayer(), start, end, distanceFactor, heuristicFactor);
+    }
+
+    /**
+     * Abstract constructor, with a dedicated state layer.
+     * The maze is only read, so several solvers with their own layers may
+     * work on the same maze at once.
+     *
+     * @param maze            The maze to be solved
+     * @param layer           the layer to display the progress on
+     * @param start           the starting cell
+     * @param end             the ending cell
+     * @param distanceFactor  the factor for the distance from the start
+     * @param heuristicFactor the factor for the estimated distance from the end
+     *                        (Heuristic-based)
+     */
+    public AStarSolver(Maze maze, StateLayer layer, Cell start, Cell end, double distanceFactor,
+            double heuristicFactor) {
+        this((IMazeGraph) maze, layer, start.getId(), end.getId(), distanceFactor, heuristicFactor);
+    }
+
+    /**
+     * Abstract constructor, for any graph.
+     * The graph is only read, so several solvers with their own layers may
+     * work on the same graph at once.
+     *
+     * @param graph           The graph to be solved
+     * @param layer           the layer to display the progress on, covering
+     *                        every cell of the graph
+     * @param start           the ID of the starting cell
+     * @param end             the ID of the ending cell
+     * @param distanceFactor  the factor for the distance from the start
+     * @param heuristicFactor the factor for the estimated distance from the end
+     *                        (Heuristic-based)
+     */
+    public AStarSolver(IMazeGraph graph, StateLayer layer, int start, int end, double distanceFactor,
+            double heuristicFactor) {
         this.current = start;
-        this.start = start;
-        this.end = end;
-        this.maze = maze;
+        this.start = new Cell(layer, start);
+        this.end = new Cell(layer, end);
+        this.endX = graph.getCellX(end);
+        this.endY = graph.getCellY(end);
+        this.maze = graph instanceof Maze ? (Maze) graph : null;
+        this.graph = graph;
+        this.layer = layer;
         this.solved = false;
         this.distanceFactor = distanceFactor;
         this.heuristicFactor = heuristicFactor;
-        this.gScore = new HashMap<>();
-        this.fScore = new HashMap<>();
-        this.openSet = new PriorityQueue<>(
-                Comparator.comparingDouble(c -> fScore.getOrDefault(c.getId(), Double.MAX_VALUE)));
-        this.cameFrom = new HashMap<>();
-        this.solved = false;
-        this.gScore.clear();
-        this.fScore.clear();
-        this.openSet.clear();
+        this.gScore = new int[graph.getCellCount()];
+        this.openSet = new IndexedMinHeap(graph.getCellCount());
+        this.cameFrom = new int[graph.getCellCount()];
+        Arrays.fill(gScore, Integer.MAX_VALUE);
+        Arrays.fill(cameFrom, -1);
+    }
+
+    /**
+     * Queues the starting cell, if it was not done yet.
+     */
+    private void initialize() {
+        if (!initialized) {
+            gScore[start.getId()] = 0;
+            openSet.push(start.getId(), heuristic(start.getId()));
+            initialized = true;
+        }
     }
 
     /**
@@ -117,12 +200,7 @@ public abstract class AStarSolver implements ISolver {
             return false;
 
         // Quick initialization check!
-        if (!initialized) {
-            gScore.put(start.getId(), 0.0);
-            fScore.put(start.getId(), heuristic(start));
-            openSet.add(start);
-            initialized = true;
-        }
+        initialize();
 
         // If the open set is empty, we're done and the maze is not solvable.
         if (openSet.isEmpty()) {
@@ -131,104 +209,100 @@ public abstract class AStarSolver implements ISolver {
         }
 
         // Remove the previous path highlight
-        for (Cell[] row : maze.getCells()) {
-            for (Cell cell : row) {
-                if (cell.getColor() == Color.GREEN && cell != start && cell != end) {
-                    cell.setColor(Color.WHITE);
+        if (!headless) {
+            for (int id = 0; id < layer.getCellCount(); id++) {
+                if (layer.getState(id) == CellState.IN_PATH && id != start.getId() && id != end.getId()) {
+                    layer.setState(id, CellState.UNPROCESSED);
                 }
             }
         }
 
         current = openSet.poll();
 
-        // Make every processed cell blue
-        for (Cell[] row : maze.getCells()) {
-            for (Cell cell : row) {
-                if (cell != start && cell != end &&
-                        gScore.containsKey(cell.getId()) &&
-                        !openSet.contains(cell) &&
-                        cell != current &&
-                        cell.getColor() != Color.GREEN) {
-                    cell.setColor(Color.BLUE);
-                }
-            }
-        }
-
-        // Make cells that need to be processed yellow
-        for (Cell cell : openSet) {
-            /*
-             * Pretty ugly but honestly that's the easiest way to do it without adding a
-             * visited set,
-             * which would itself make it much more complex.
-             */
-            if (cell != start && cell != end && cell != current && cell.getColor() != Color.GREEN) {
-                cell.setColor(Color.YELLOW);
-            }
+        if (!headless) {
+            highlightProgress();
         }
 
-        // Make current cell red
-        current.setColor(Color.RED);
-
         /*
          * Check whether we've finished early to avoid needless checking.
          * If solved, highlight the final full path in green
          */
-        if (current.getId() == end.getId()) {
-            Integer pathId = end.getId();
-            while (pathId != null) {
-                Cell pathCell = maze.findCellById(pathId);
-                if (pathCell != null)
-                    pathCell.setColor(Color.GREEN);
-                pathId = cameFrom.get(pathId);
+        if (current == end.getId()) {
+            if (!headless) {
+                for (int pathId = current; pathId >= 0; pathId = cameFrom[pathId]) {
+                    layer.setState(pathId, CellState.IN_PATH);
+                }
             }
             solved = true;
             return true;
         }
 
         // If we're not done, check for potential neighbors
-        for (Integer neighborId : maze.getAdjacencyList().getNeighbors(current.getId())) {
-            Cell neighbor = maze.findCellById(neighborId);
-            if (neighbor == null)
-                continue;
-
-            Double tryGScore = gScore.getOrDefault(current.getId(), Double.MAX_VALUE) + 1;
-            if (tryGScore < gScore.getOrDefault(neighborId, Double.MAX_VALUE)) {
-                cameFrom.put(neighborId, current.getId());
-                gScore.put(neighborId, tryGScore);
-                Double tryFScore = (tryGScore * distanceFactor) + (heuristic(neighbor) * heuristicFactor);
-                fScore.put(neighborId, tryFScore);
-                if (!openSet.contains(neighbor))
-                    openSet.add(neighbor);
+        int tryGScore = gScore[current] + 1;
+        int count = graph.getNeighbors(current, neighbors);
+        for (int i = 0; i < count; i++) {
+            int neighborId = neighbors[i];
+            if (tryGScore < gScore[neighborId]) {
+                cameFrom[neighborId] = current;
+                gScore[neighborId] = tryGScore;
+                double tryFScore = (tryGScore * distanceFactor) + (heuristic(neighborId) * heuristicFactor);
+                // Either queues the cell, or decreases its key if it already is
+                openSet.push(neighborId, tryFScore);
             }
         }
 
         // Highlight the current temporary path.
-        Integer pathId = current.getId();
-        while (pathId != null) {
-            Cell pathCell = maze.findCellById(pathId);
-            if (pathCell != null && pathCell != end && pathCell != current) {
-                pathCell.setColor(Color.GREEN);
+        if (!headless) {
+            for (int pathId = cameFrom[current]; pathId >= 0; pathId = cameFrom[pathId]) {
+                if (pathId != end.getId()) {
+                    layer.setState(pathId, CellState.IN_PATH);
+                }
             }
-            pathId = cameFrom.get(pathId);
         }
 
         return true;
     }
 
+    /**
+     * Colors the processed, queued and current cells of the layer.
+     */
+    private void highlightProgress() {
+        // Make every processed cell blue
+        for (int id = 0; id < layer.getCellCount(); id++) {
+            if (id != start.getId() && id != end.getId() &&
+                    gScore[id] != Integer.MAX_VALUE &&
+                    !openSet.contains(id) &&
+                    id != current &&
+                    layer.getState(id) != CellState.IN_PATH) {
+                layer.setState(id, CellState.PROCESSED);
+            }
+        }
+
+        // Make cells that need to be processed yellow
+        for (int i = 0; i < openSet.size(); i++) {
+            int id = openSet.get(i);
+            if (id != start.getId() && id != end.getId() && id != current
+                    && layer.getState(id) != CellState.IN_PATH) {
+                layer.setState(id, CellState.QUEUED);
+            }
+        }
+
+        // Make current cell red
+        layer.setState(current, CellState.CURRENT);
+    }
+
     /**
      * Executes the entire rest of the solving process.
+     * When the start is the end, there is nothing to solve: false is
+     * returned, the solver is not marked as finished and getPath stays
+     * empty.
      *
      * @return whether a step could be performed
      */
     public Boolean solve() {
-        if (!initialized) {
-            gScore.put(start.getId(), 0.0);
-            fScore.put(start.getId(), heuristic(start));
-            openSet.add(start);
-            initialized = true;
-        }
+        initialize();
 
-        if (current == end) {
+        if (current == end.getId()) {
             return false;
         }
 
@@ -280,18 +354,105 @@ public abstract class AStarSolver implements ISolver {
         return solved;
     }
 
+    /**
+     * Whether the solver skips every display related work.
+     *
+     * @return true if the solver is headless
+     */
+    @Override
+    public Boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Set whether the solver skips every display related work.
+     *
+     * @param headless true to stop updating the state layer
+     */
+    @Override
+    public void setHeadless(Boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * Makes the solver read the connections from another view of its maze.
+     *
+     * @param graph a view of the maze, e.g. a snapshot, or null to read the
+     *              maze directly
+     */
+    @Override
+    public void setGraph(IMazeGraph graph) {
+        if (graph == null) {
+            graph = maze;
+        }
+        if (graph == null || graph.getCellCount() != gScore.length) {
+            throw new IllegalArgumentException("The graph does not match the maze");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Get the topology the solver reads.
+     *
+     * @return the graph of the solver
+     */
+    @Override
+    public IMazeGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Get the path found by the solver, from the start to the end.
+     *
+     * @return the IDs of the cells of the path, or an empty list if no path
+     *         was found (yet)
+     */
+    @Override
+    public List<Integer> getPath() {
+        if (!solved || current != end.getId()) {
+            return List.of();
+        }
+
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int pathId = current; pathId >= 0; pathId = cameFrom[pathId]) {
+            path.addFirst(pathId);
+        }
+        return path;
+    }
+
     /**
      * Compute the weight of a path given it's position in the maze.
+     * This is called for every relaxed neighbor, so implementations should
+     * only do arithmetic on the ID, the coordinates given by the graph and
+     * the cached endX and endY.
      *
-     * @param c the cell on which the heuristic is based
+     * @param id the ID of the cell on which the heuristic is based
      * @return the computed weight.
      */
-    protected abstract Double heuristic(Cell c);
+    protected abstract double heuristic(int id);
+
+    /**
+     * Get the heuristic of the solver as a primitive function.
+     *
+     * @return a function from a cell ID to its heuristic weight
+     */
+    public IntToDoubleFunction getHeuristic() {
+        return this::heuristic;
+    }
 
     /**
      * Read accessor for the maze.
+     * Null if the solver was given a graph that is not a maze.
      */
     public Maze getMaze() {
         return maze;
     }
+
+    /**
+     * Read accessor for the state layer.
+     */
+    @Override
+    public StateLayer getStateLayer() {
+        return layer;
+    }
 }
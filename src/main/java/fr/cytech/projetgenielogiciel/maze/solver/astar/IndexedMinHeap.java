@@ -0,0 +1,188 @@
+package fr.cytech.projetgenielogiciel.maze.solver.astar;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Class representing a binary min-heap of cell IDs, indexed by ID.
+ *
+ * Every element is an int in [0, capacity), and has a double key. As the
+ * position of every element in the heap is tracked, checking whether an
+ * element is queued is O(1), and the key of a queued element can be
+ * decreased in O(log n) instead of queuing a duplicate.
+ * Nothing is allocated after construction.
+ */
+public final class IndexedMinHeap implements Serializable {
+    /**
+     * The elements, in heap order.
+     */
+    private final int[] heap;
+
+    /**
+     * The position of every element in the heap, -1 if it is not queued.
+     */
+    private final int[] positions;
+
+    /**
+     * The key of every element.
+     * Keys are kept after an element is polled.
+     */
+    private final double[] keys;
+
+    /**
+     * The number of queued elements.
+     */
+    private int size = 0;
+
+    /**
+     * Constructor for an empty heap.
+     *
+     * @param capacity the number of possible elements, [0, capacity)
+     */
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(positions, -1);
+        Arrays.fill(keys, Double.MAX_VALUE);
+    }
+
+    /**
+     * Queues an element, or updates its key if it is already queued.
+     *
+     * @param element the element to queue
+     * @param key     the key of the element
+     */
+    public void push(int element, double key) {
+        int position = positions[element];
+        double oldKey = keys[element];
+        keys[element] = key;
+
+        if (position < 0) {
+            heap[size] = element;
+            positions[element] = size;
+            siftUp(size++);
+        } else if (key < oldKey) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Removes the element with the smallest key.
+     * The heap must not be empty.
+     *
+     * @return the removed element
+     */
+    public int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Checks whether an element is queued.
+     *
+     * @param element the element
+     * @return true if the element is in the heap
+     */
+    public boolean contains(int element) {
+        return positions[element] >= 0;
+    }
+
+    /**
+     * Get the last key given to an element.
+     *
+     * @param element the element
+     * @return its key, or Double.MAX_VALUE if it never was queued
+     */
+    public double getKey(int element) {
+        return keys[element];
+    }
+
+    /**
+     * Get the element at a given position of the heap, to iterate over the
+     * queued elements. The order is not sorted.
+     *
+     * @param index the position in [0, size())
+     * @return the element at that position
+     */
+    public int get(int index) {
+        return heap[index];
+    }
+
+    /**
+     * Get the number of queued elements.
+     *
+     * @return the size of the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the heap is empty.
+     *
+     * @return true if no element is queued
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Moves an element up until its parent has a smaller key.
+     *
+     * @param position the position of the element
+     */
+    private void siftUp(int position) {
+        int element = heap[position];
+        double key = keys[element];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentElement = heap[parent];
+            if (keys[parentElement] <= key) {
+                break;
+            }
+            heap[position] = parentElement;
+            positions[parentElement] = position;
+            position = parent;
+        }
+        heap[position] = element;
+        positions[element] = position;
+    }
+
+    /**
+     * Moves an element down until its children have larger keys.
+     *
+     * @param position the position of the element
+     */
+    private void siftDown(int position) {
+        int element = heap[position];
+        double key = keys[element];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int childElement = heap[child];
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[childElement]) {
+                child = right;
+                childElement = heap[right];
+            }
+            if (key <= keys[childElement]) {
+                break;
+            }
+            heap[position] = childElement;
+            positions[childElement] = position;
+            position = child;
+        }
+        heap[position] = element;
+        positions[element] = position;
+    }
+}
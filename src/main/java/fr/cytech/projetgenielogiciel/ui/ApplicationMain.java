@@ -65,12 +65,13 @@ public class ApplicationMain extends Application {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Load maze from file...");
             fileChooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("Maze Files", "*.maze"),
                     new FileChooser.ExtensionFilter("Text Files", "*.ser"));
             fileChooser.setSelectedExtensionFilter(fileChooser.getExtensionFilters().get(0));
             try {
 
                 String path = fileChooser.showOpenDialog(primaryStage).getAbsolutePath();
-                Maze maze = Serializer.deserialize(path, Maze.class);
+                Maze maze = Serializer.deserializeMaze(path);
 
                 new MazeDisplayScene(primaryStage, maze);
             } catch (IOException | ClassNotFoundException ex) {
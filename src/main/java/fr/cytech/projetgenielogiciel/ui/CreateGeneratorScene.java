@@ -44,7 +44,10 @@ public class CreateGeneratorScene {
         top.setAlignment(Pos.TOP_LEFT);
 
         ComboBox<String> algorithmChoice = new ComboBox<>();
-        algorithmChoice.getItems().addAll("DFS", "BFS", "Imperfect DFS", "Imperfect BFS");
+        algorithmChoice.getItems().addAll("DFS", "BFS", "Imperfect DFS", "Imperfect BFS", "Eller",
+                "Kruskal", "Wilson", "Parallel tiled",
+                "Recursive division", "Prim", "Hunt and kill", "Sidewinder", "Binary tree",
+                "Growing tree");
         algorithmChoice.setPromptText("Select Algorithm");
 
         // Load button
@@ -83,6 +86,13 @@ public class CreateGeneratorScene {
         TextField wallImperfectionProbability = new TextField();
         wallImperfectionProbability.setPromptText("Percentage of cells with extra walls opened [Integer]");
 
+        // Growing tree cell selection
+        ComboBox<GrowingTreeBuilder.Policy> growingTreePolicy = new ComboBox<>();
+        growingTreePolicy.getItems().addAll(GrowingTreeBuilder.Policy.values());
+        growingTreePolicy.setValue(GrowingTreeBuilder.Policy.NEWEST);
+        TextField newestProbability = new TextField();
+        newestProbability.setPromptText("Percentage of steps picking the newest cell, if mixed [Integer]");
+
         /*
          * ALGORITHM PARAMS DISPLAY
          */
@@ -92,7 +102,7 @@ public class CreateGeneratorScene {
             String selected = algorithmChoice.getValue();
 
             switch (selected) {
-                case "DFS", "BFS":
+                case "DFS", "BFS", "Wilson", "Prim", "Hunt and kill":
                     paramBox.getChildren().addAll(
                             mazeWidth,
                             mazeHeight,
@@ -109,6 +119,23 @@ public class CreateGeneratorScene {
                             seed,
                             wallImperfectionProbability);
                     break;
+                case "Growing tree":
+                    paramBox.getChildren().addAll(
+                            mazeWidth,
+                            mazeHeight,
+                            startX,
+                            startY,
+                            seed,
+                            growingTreePolicy,
+                            newestProbability);
+                    break;
+                case "Eller", "Kruskal", "Parallel tiled", "Recursive division", "Sidewinder",
+                        "Binary tree":
+                    paramBox.getChildren().addAll(
+                            mazeWidth,
+                            mazeHeight,
+                            seed);
+                    break;
             }
         });
 
@@ -179,20 +206,25 @@ public class CreateGeneratorScene {
                 if (h <= 0)
                     throw new IllegalArgumentException();
 
-                Integer sx = Integer.parseInt(startX.getText());
-                if (sx < 0 || sx >= w)
-                    throw new IllegalArgumentException();
-
-                Integer sy = Integer.parseInt(startY.getText());
-                if (sy < 0 || sy >= h)
-                    throw new IllegalArgumentException();
+                // Some algorithms have no starting position
+                Integer sx = 0;
+                Integer sy = 0;
+                if (paramBox.getChildren().contains(startX)) {
+                    sx = Integer.parseInt(startX.getText());
+                    if (sx < 0 || sx >= w)
+                        throw new IllegalArgumentException();
+
+                    sy = Integer.parseInt(startY.getText());
+                    if (sy < 0 || sy >= h)
+                        throw new IllegalArgumentException();
+                }
 
                 Integer s = Integer.parseInt(seed.getText());
 
                 Integer p = null;
 
                 IBuilder builder = null;
-                Maze maze = new Maze(w, h);
+                Maze maze = new Maze(w, h, Maze.StorageMode.BIT_GRID);
                 switch (selected) {
                     case "DFS":
                         builder = new DfsBuilder(maze, sx, sy, s);
@@ -212,6 +244,42 @@ public class CreateGeneratorScene {
                             throw new IllegalArgumentException();
                         builder = new ImperfectDfsBuilder(maze, sx, sy, s, p);
                         break;
+                    case "Eller":
+                        builder = new EllerBuilder(maze, sx, sy, s);
+                        break;
+                    case "Kruskal":
+                        builder = new KruskalBuilder(maze, s);
+                        break;
+                    case "Wilson":
+                        builder = new WilsonBuilder(maze, sx, sy, s);
+                        break;
+                    case "Parallel tiled":
+                        builder = new ParallelTiledBuilder(maze, s);
+                        break;
+                    case "Recursive division":
+                        builder = new RecursiveDivisionBuilder(maze, s);
+                        break;
+                    case "Prim":
+                        builder = new PrimBuilder(maze, sx, sy, s);
+                        break;
+                    case "Hunt and kill":
+                        builder = new HuntAndKillBuilder(maze, sx, sy, s);
+                        break;
+                    case "Sidewinder":
+                        builder = new SidewinderBuilder(maze, s);
+                        break;
+                    case "Binary tree":
+                        builder = new BinaryTreeBuilder(maze, s);
+                        break;
+                    case "Growing tree":
+                        p = 50;
+                        if (growingTreePolicy.getValue() == GrowingTreeBuilder.Policy.MIXED) {
+                            p = Integer.parseInt(newestProbability.getText());
+                            if (p < 0 || p > 100)
+                                throw new IllegalArgumentException();
+                        }
+                        builder = new GrowingTreeBuilder(maze, sx, sy, s, growingTreePolicy.getValue(), p);
+                        break;
                 }
 
                 // Finally send the builder and the maze to the building scene.
@@ -68,12 +68,13 @@ public class MazeDisplayScene {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Load maze from file...");
             fileChooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("Maze Files", "*.maze"),
                     new FileChooser.ExtensionFilter("Text Files", "*.ser"));
             fileChooser.setSelectedExtensionFilter(fileChooser.getExtensionFilters().get(0));
             try {
 
                 String path = fileChooser.showOpenDialog(stage).getAbsolutePath();
-                Maze loadedMaze = Serializer.deserialize(path, Maze.class);
+                Maze loadedMaze = Serializer.deserializeMaze(path);
 
                 new MazeDisplayScene(stage, loadedMaze);
             } catch (IOException | ClassNotFoundException ex) {
@@ -96,12 +97,12 @@ public class MazeDisplayScene {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Load maze from file...");
             fileChooser.getExtensionFilters().addAll(
-                    new FileChooser.ExtensionFilter("Text Files", "*.ser"));
+                    new FileChooser.ExtensionFilter("Maze Files", "*.maze"));
             fileChooser.setSelectedExtensionFilter(fileChooser.getExtensionFilters().get(0));
             try {
 
                 String path = fileChooser.showSaveDialog(stage).getAbsolutePath();
-                Serializer.serialize(maze, path);
+                Serializer.serializeMaze(maze, path, true);
             } catch (IOException ex) {
                 Alert errorAlert = new Alert(Alert.AlertType.ERROR);
                 errorAlert.setTitle("Error");
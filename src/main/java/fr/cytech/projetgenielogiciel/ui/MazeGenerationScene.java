@@ -24,6 +24,16 @@ import javafx.util.Duration;
  * Class for the maze generation scene.
  */
 public class MazeGenerationScene {
+    /**
+     * The shortest delay between two updates of the display, in ms.
+     */
+    private static final double FRAME_MS = 16;
+
+    /**
+     * The time spent running steps every frame at full speed.
+     */
+    private static final java.time.Duration STEP_BUDGET = java.time.Duration.ofMillis(10);
+
     /**
      * whether the scene is displaying an animation for the building.
      */
@@ -92,7 +102,7 @@ public class MazeGenerationScene {
          * CENTER MAZE VIEW
          */
 
-        MazeView view = new MazeView(maze);
+        MazeView view = new MazeView(maze, builder.getStateLayer());
         HBox center = new HBox(view);
 
         center.setAlignment(Pos.CENTER);
@@ -103,7 +113,7 @@ public class MazeGenerationScene {
          */
 
         // Slider for the animation delay
-        Slider speedSlider = new Slider(10, 1000, 200);
+        Slider speedSlider = new Slider(0, 1000, 200);
         speedSlider.setShowTickLabels(true);
         speedSlider.setShowTickMarks(true);
         speedSlider.setMajorTickUnit(250);
@@ -138,13 +148,11 @@ public class MazeGenerationScene {
             view.update();
         });
 
-        // Instantly finish every possible step
+        // Instantly finish every possible step. build() may run them in
+        // parallel, without counting them, so the counter is left as is.
         finish.setOnAction(e -> {
-            for (Boolean stepStatus : builder)
-                if (stepStatus) {
-                    stepCount++;
-                    step.setText("Step " + stepCount);
-                }
+            builder.build();
+            step.setText("Step " + stepCount + " (finished)");
             view.update();
         });
 
@@ -233,6 +241,9 @@ public class MazeGenerationScene {
     /**
      * Method to create and update the building animation.
      *
+     * Below FRAME_MS, several steps are run per frame, and a delay of 0 runs
+     * as many steps as fit in STEP_BUDGET every frame.
+     *
      * @param delayMs the delay, in ms, between steps
      * @param builder the builder
      * @param step    the step button, to update the text
@@ -242,11 +253,12 @@ public class MazeGenerationScene {
         if (animation != null)
             animation.stop();
 
-        animation = new Timeline(new KeyFrame(Duration.millis(delayMs), e -> {
-            if (!builder.step())
+        int stepsPerFrame = delayMs <= 0 ? 0 : (int) Math.max(1, Math.round(FRAME_MS / delayMs));
+        animation = new Timeline(new KeyFrame(Duration.millis(Math.max(delayMs, FRAME_MS)), e -> {
+            stepCount += delayMs <= 0 ? builder.runFor(STEP_BUDGET) : builder.step(stepsPerFrame);
+            if (builder.isFinished())
                 animation.stop();
 
-            stepCount++;
             step.setText("Step " + stepCount);
             view.update();
         }));
@@ -6,6 +6,7 @@ import java.util.Map;
 import fr.cytech.projetgenielogiciel.maze.Cell;
 import fr.cytech.projetgenielogiciel.maze.Direction;
 import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuItem;
 import javafx.scene.input.MouseButton;
@@ -24,6 +25,10 @@ public class MazeView extends Pane {
      * Reference to the maze that the View is displaying.
      */
     private Maze maze;
+    /**
+     * The state layer that the View is displaying the colors of.
+     */
+    private final StateLayer layer;
     /**
      * The cell views based on their coordinates.
      */
@@ -33,12 +38,24 @@ public class MazeView extends Pane {
     private double cellSize;
 
     /**
-     * Creates a new MazeView component.
+     * Creates a new MazeView component, displaying the default state layer
+     * of the maze.
      * 
      * @param maze the maze to visualize
      */
     public MazeView(Maze maze) {
+        this(maze, maze.getStateLayer());
+    }
+
+    /**
+     * Creates a new MazeView component.
+     * 
+     * @param maze  the maze to visualize
+     * @param layer the state layer to take the colors from
+     */
+    public MazeView(Maze maze, StateLayer layer) {
         this.maze = maze;
+        this.layer = layer;
         this.cellViewMap = new CellView[maze.getWidth() + 1][maze.getHeight() + 1];
         this.widthProperty().addListener((obs, oldVal, newVal) -> resize());
         this.heightProperty().addListener((obs, oldVal, newVal) -> resize());
@@ -205,7 +222,7 @@ public class MazeView extends Pane {
         private void updateColor() {
             // This feels REALLY wrong but it seems fine..?
             // Inner classes are such a mess.
-            Color color = maze.getCell(x, y).getColor();
+            Color color = layer.getState(maze.getCellId(x, y)).getColor();
             background.setFill(color);
         }
 
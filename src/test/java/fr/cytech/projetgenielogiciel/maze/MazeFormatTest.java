@@ -0,0 +1,238 @@
+package fr.cytech.projetgenielogiciel.maze;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the MazeFormat.
+ */
+class MazeFormatTest {
+
+    /**
+     * Width of the mazes, odd so that the walls do not fill the last word.
+     */
+    private static final int WIDTH = 7;
+
+    /**
+     * Height of the mazes.
+     */
+    private static final int HEIGHT = 5;
+
+    /**
+     * Where the seekable files are written.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Writes a maze to bytes.
+     *
+     * @param maze       the maze to write
+     * @param withStates whether to write the default state layer
+     * @return the content of the file
+     * @throws IOException never
+     */
+    private static byte[] write(Maze maze, boolean withStates) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MazeFormat.write(maze, Channels.newChannel(out), withStates);
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a maze from bytes, through a channel that cannot tell its size.
+     *
+     * @param bytes the content of the file
+     * @return the maze
+     * @throws IOException if the bytes do not hold a valid maze
+     */
+    private static Maze read(byte[] bytes) throws IOException {
+        return MazeFormat.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Reads a maze from bytes, through a file channel.
+     *
+     * @param bytes the content of the file
+     * @return the maze
+     * @throws IOException if the bytes do not hold a valid maze
+     */
+    private Maze readFile(byte[] bytes) throws IOException {
+        Path file = directory.resolve("maze.bin");
+        Files.write(file, bytes);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return MazeFormat.read(channel);
+        }
+    }
+
+    /**
+     * Creates a maze with walls open along the last column and the last row,
+     * and a few more inside.
+     *
+     * @param mode the storage mode of the maze
+     * @return the maze
+     */
+    private static Maze sample(Maze.StorageMode mode) {
+        Maze maze = new Maze(WIDTH, HEIGHT, mode);
+        for (int y = 0; y < HEIGHT - 1; y++) {
+            maze.connect(WIDTH - 1, y, Direction.UP);
+        }
+        for (int x = 0; x < WIDTH - 1; x++) {
+            maze.connect(x, HEIGHT - 1, Direction.LEFT);
+        }
+        maze.connect(0, 0, Direction.LEFT);
+        maze.connect(2, 1, Direction.UP);
+        maze.connect(3, 2, Direction.RIGHT);
+        return maze;
+    }
+
+    /**
+     * Asserts that two mazes have the same size and connections.
+     *
+     * @param expected the reference maze
+     * @param actual   the maze to compare to it
+     */
+    private static void assertSameConnections(Maze expected, Maze actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int id = 0; id < expected.getCellCount(); id++) {
+            int x = expected.getCellX(id);
+            int y = expected.getCellY(id);
+            for (Direction direction : Direction.values()) {
+                assertEquals(expected.hasConnection(x, y, direction), actual.hasConnection(x, y, direction),
+                        "connection of (" + x + ", " + y + ") towards " + direction);
+            }
+        }
+    }
+
+    /**
+     * Get the flags of a file.
+     *
+     * @param bytes the content of the file
+     * @return the flags in its header
+     */
+    private static short flags(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getShort(MazeFormat.MAGIC.length + 2);
+    }
+
+    @Test
+    void undirectedRoundTrip() throws IOException {
+        for (Maze.StorageMode mode : new Maze.StorageMode[] { Maze.StorageMode.BIT_GRID,
+                Maze.StorageMode.ADJACENCY_LIST, Maze.StorageMode.TILED }) {
+            Maze maze = sample(mode);
+            byte[] bytes = write(maze, false);
+            assertEquals(0, flags(bytes) & MazeFormat.FLAG_DIRECTED, mode.toString());
+            assertEquals(MazeFormat.HEADER_SIZE + MazeFormat.getWallsSize(maze.getCellCount(), false), bytes.length);
+
+            Maze read = read(bytes);
+            assertEquals(mode, read.getStorageMode());
+            assertSameConnections(maze, read);
+            assertSameConnections(maze, readFile(bytes));
+
+            // The last column and row are open along them, never past them
+            assertTrue(read.hasConnection(WIDTH - 1, HEIGHT - 2, Direction.UP));
+            assertTrue(read.hasConnection(WIDTH - 1, HEIGHT - 1, Direction.DOWN));
+            assertTrue(read.hasConnection(WIDTH - 2, HEIGHT - 1, Direction.LEFT));
+            assertTrue(read.hasConnection(WIDTH - 1, HEIGHT - 1, Direction.RIGHT));
+            assertFalse(read.hasConnection(WIDTH - 1, HEIGHT - 1, Direction.LEFT));
+            assertFalse(read.hasConnection(WIDTH - 1, HEIGHT - 1, Direction.UP));
+        }
+    }
+
+    @Test
+    void directedRoundTrip() throws IOException {
+        for (Maze.StorageMode mode : new Maze.StorageMode[] { Maze.StorageMode.BIT_GRID,
+                Maze.StorageMode.ADJACENCY_LIST, Maze.StorageMode.TILED }) {
+            Maze maze = sample(mode);
+            maze.connectOneWay(WIDTH - 2, HEIGHT - 2, Direction.LEFT);
+            maze.connectOneWay(WIDTH - 1, HEIGHT - 1, Direction.DOWN);
+            maze.connectOneWay(1, 0, Direction.UP);
+            byte[] bytes = write(maze, false);
+            assertEquals(MazeFormat.FLAG_DIRECTED, flags(bytes) & MazeFormat.FLAG_DIRECTED, mode.toString());
+
+            Maze read = read(bytes);
+            assertSameConnections(maze, read);
+            assertTrue(read.hasConnection(WIDTH - 2, HEIGHT - 2, Direction.LEFT));
+            assertFalse(read.hasConnection(WIDTH - 1, HEIGHT - 2, Direction.RIGHT));
+            assertTrue(read.hasConnection(1, 0, Direction.UP));
+            assertFalse(read.hasConnection(1, 1, Direction.DOWN));
+        }
+    }
+
+    @Test
+    void statesRoundTrip() throws IOException {
+        Maze maze = sample(Maze.StorageMode.BIT_GRID);
+        CellState[] states = CellState.values();
+        for (int id = 0; id < maze.getCellCount(); id++) {
+            maze.getStateLayer().setState(id, states[id % states.length]);
+        }
+        byte[] bytes = write(maze, true);
+        assertEquals(MazeFormat.FLAG_STATES, flags(bytes) & MazeFormat.FLAG_STATES);
+
+        Maze read = read(bytes);
+        assertSameConnections(maze, read);
+        for (int id = 0; id < maze.getCellCount(); id++) {
+            assertEquals(maze.getStateLayer().getState(id), read.getStateLayer().getState(id));
+        }
+    }
+
+    @Test
+    void badMagicIsRejected() throws IOException {
+        byte[] bytes = write(sample(Maze.StorageMode.BIT_GRID), false);
+        bytes[0] = 'X';
+        assertThrows(IOException.class, () -> read(bytes));
+    }
+
+    @Test
+    void badVersionIsRejected() throws IOException {
+        byte[] bytes = write(sample(Maze.StorageMode.BIT_GRID), false);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putShort(MazeFormat.MAGIC.length,
+                (short) (MazeFormat.VERSION + 1));
+        assertThrows(IOException.class, () -> read(bytes));
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        byte[] bytes = write(sample(Maze.StorageMode.BIT_GRID), true);
+        for (int length : new int[] { 0, MazeFormat.HEADER_SIZE - 1, MazeFormat.HEADER_SIZE, bytes.length - 1 }) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(EOFException.class, () -> read(truncated), length + " bytes");
+            assertThrows(EOFException.class, () -> readFile(truncated), length + " bytes, seekable");
+        }
+    }
+
+    @Test
+    void forgedSizeIsRejectedBeforeAllocating() throws IOException {
+        byte[] bytes = write(sample(Maze.StorageMode.BIT_GRID), true);
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MazeFormat.MAGIC.length + 4, 40000);
+        header.putInt(MazeFormat.MAGIC.length + 8, 40000);
+        assertThrows(EOFException.class, () -> readFile(bytes));
+    }
+
+    @Test
+    void invalidStateIsRejected() throws IOException {
+        byte[] bytes = write(sample(Maze.StorageMode.BIT_GRID), true);
+        for (byte state : new byte[] { -1, (byte) CellState.values().length }) {
+            bytes[bytes.length - 1] = state;
+            assertThrows(IOException.class, () -> read(bytes), "state " + state);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertPerfect;
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Tests shared by every builder whose build() runs on a ForkJoinPool.
+ * Such builders must give the same maze for a given seed whatever the
+ * pool, the storage mode, and whether they were run with step or build.
+ */
+abstract class AbstractParallelBuilderTest {
+
+    /**
+     * Size of the mazes, large enough for the work to be split between
+     * tasks by every builder.
+     */
+    protected static final int WIDTH = 700;
+
+    /**
+     * Size of the mazes, large enough for the work to be split between
+     * tasks by every builder.
+     */
+    protected static final int HEIGHT = 500;
+
+    /**
+     * The seed of every builder.
+     */
+    protected static final int SEED = 42;
+
+    /**
+     * Creates the builder under test.
+     *
+     * @param maze  the maze to build
+     * @param layer the layer to display the progress on
+     * @param seed  seed for the RNG
+     * @param pool  the pool, or null for the common pool
+     * @return the builder
+     */
+    protected abstract IBuilder create(Maze maze, StateLayer layer, Integer seed, ForkJoinPool pool);
+
+    /**
+     * Builds a maze with build() on a given pool.
+     *
+     * @param mode the storage mode of the maze
+     * @param pool the pool, or null for the common pool
+     * @return the built maze
+     */
+    protected Maze build(Maze.StorageMode mode, ForkJoinPool pool) {
+        Maze maze = new Maze(WIDTH, HEIGHT, mode);
+        create(maze, maze.getStateLayer(), SEED, pool).build();
+        return maze;
+    }
+
+    @Test
+    void buildIsPerfect() {
+        assertPerfect(build(Maze.StorageMode.BIT_GRID, null));
+    }
+
+    @Test
+    void sameMazeWhateverThePool() {
+        Maze expected = build(Maze.StorageMode.BIT_GRID, null);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            assertSameMaze(expected, build(Maze.StorageMode.BIT_GRID, single), "single thread pool");
+            assertSameMaze(expected, build(Maze.StorageMode.BIT_GRID, several), "four thread pool");
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+        // Not written with atomic updates, so built differently
+        assertSameMaze(expected, build(Maze.StorageMode.TILED, null), "common pool, TILED");
+    }
+
+    @Test
+    void sameMazeStepByStep() {
+        Maze expected = build(Maze.StorageMode.BIT_GRID, null);
+
+        Maze maze = new Maze(WIDTH, HEIGHT, Maze.StorageMode.BIT_GRID);
+        IBuilder builder = create(maze, maze.getStateLayer(), SEED, null);
+        // The last step may only find that there is nothing left to do
+        while (!builder.isFinished()) {
+            builder.step();
+        }
+        assertSameMaze(expected, maze, "step by step");
+        assertPerfect(maze);
+    }
+
+    @Test
+    void buildAfterSomeSteps() {
+        Maze expected = build(Maze.StorageMode.BIT_GRID, null);
+
+        Maze maze = new Maze(WIDTH, HEIGHT, Maze.StorageMode.BIT_GRID);
+        IBuilder builder = create(maze, maze.getStateLayer(), SEED, null);
+        builder.step(5);
+        builder.build();
+        assertTrue(builder.isFinished());
+        assertSameMaze(expected, maze, "some steps, then build");
+    }
+}
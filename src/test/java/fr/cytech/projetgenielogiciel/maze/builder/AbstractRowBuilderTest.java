@@ -0,0 +1,27 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+
+/**
+ * Tests shared by every builder extending AbstractRowBuilder, on top of the
+ * checks of every parallel builder.
+ */
+abstract class AbstractRowBuilderTest extends AbstractParallelBuilderTest {
+
+    @Test
+    void oneStepPerRow() {
+        Maze maze = new Maze(WIDTH, HEIGHT, Maze.StorageMode.BIT_GRID);
+        IBuilder builder = create(maze, maze.getStateLayer(), SEED, null);
+        int steps = 0;
+        while (!builder.isFinished()) {
+            assertTrue(builder.step());
+            steps++;
+        }
+        assertEquals(HEIGHT, steps);
+    }
+}
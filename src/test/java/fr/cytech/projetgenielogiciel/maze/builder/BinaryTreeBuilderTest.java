@@ -0,0 +1,17 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.concurrent.ForkJoinPool;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Tests for the BinaryTreeBuilder.
+ */
+class BinaryTreeBuilderTest extends AbstractRowBuilderTest {
+
+    @Override
+    protected IBuilder create(Maze maze, StateLayer layer, Integer seed, ForkJoinPool pool) {
+        return new BinaryTreeBuilder(maze, layer, seed, pool);
+    }
+}
@@ -0,0 +1,74 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertPerfect;
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.MazeFormat;
+
+/**
+ * Tests for the EllerBuilder.
+ */
+class EllerBuilderTest {
+
+    /**
+     * A single cell, a single row, a single column and odd rectangles.
+     */
+    private static final int[][] SIZES = { { 1, 1 }, { 1, 70 }, { 70, 1 }, { 5, 13 }, { 129, 77 } };
+
+    /**
+     * The seed of every maze.
+     */
+    private static final int SEED = 7;
+
+    /**
+     * The directory the streamed mazes are written to.
+     */
+    @TempDir
+    Path dir;
+
+    @Test
+    void buildIsPerfect() {
+        for (int[] size : SIZES) {
+            Maze maze = new Maze(size[0], size[1], Maze.StorageMode.BIT_GRID);
+            new EllerBuilder(maze, 0, 0, SEED).build();
+            assertPerfect(maze);
+        }
+    }
+
+    /**
+     * Streaming to a file must give a perfect maze too, and the same one as
+     * building in memory from the same seed.
+     */
+    @Test
+    void streamedFileIsPerfect() throws IOException {
+        for (int[] size : SIZES) {
+            Path path = dir.resolve(size[0] + "x" + size[1] + ".maze");
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                new EllerBuilder(size[0], size[1], new FileRowSink(channel, size[0], size[1]), SEED).build();
+            }
+
+            Maze streamed;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                streamed = MazeFormat.read(channel);
+            }
+            assertEquals(size[0] - 1, streamed.getWidth());
+            assertEquals(size[1] - 1, streamed.getHeight());
+            assertPerfect(streamed);
+
+            Maze expected = new Maze(size[0], size[1], Maze.StorageMode.BIT_GRID);
+            new EllerBuilder(expected, 0, 0, SEED).build();
+            assertSameMaze(expected, streamed, size[0] + "x" + size[1] + " streamed to a file");
+        }
+    }
+}
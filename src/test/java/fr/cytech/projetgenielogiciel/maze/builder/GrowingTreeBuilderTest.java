@@ -0,0 +1,52 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertPerfect;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+
+/**
+ * Tests for the GrowingTreeBuilder.
+ */
+class GrowingTreeBuilderTest {
+
+    @Test
+    void buildIsPerfect() {
+        int[][] sizes = { { 1, 1 }, { 1, 70 }, { 70, 1 }, { 5, 13 }, { 129, 77 } };
+        for (GrowingTreeBuilder.Policy policy : GrowingTreeBuilder.Policy.values()) {
+            for (int[] size : sizes) {
+                int width = size[0];
+                int height = size[1];
+                int[][] starts = { { 0, 0 }, { width / 2, height / 2 }, { width - 1, height - 1 } };
+                for (int[] start : starts) {
+                    Maze maze = new Maze(width, height, Maze.StorageMode.BIT_GRID);
+                    new GrowingTreeBuilder(maze, start[0], start[1], 7, policy).build();
+                    assertPerfect(maze);
+                }
+            }
+        }
+    }
+
+    /**
+     * Always or never picking the newest cell are both valid mixes.
+     */
+    @Test
+    void mixedBoundsArePerfect() {
+        for (int newestProbability : new int[] { 0, 100 }) {
+            Maze maze = new Maze(33, 17, Maze.StorageMode.BIT_GRID);
+            new GrowingTreeBuilder(maze, 0, 0, 7, GrowingTreeBuilder.Policy.MIXED, newestProbability).build();
+            assertPerfect(maze);
+        }
+    }
+
+    @Test
+    void invalidProbabilityIsRejected() {
+        Maze maze = new Maze(5, 5, Maze.StorageMode.BIT_GRID);
+        assertThrows(IllegalArgumentException.class,
+                () -> new GrowingTreeBuilder(maze, 0, 0, 7, GrowingTreeBuilder.Policy.MIXED, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GrowingTreeBuilder(maze, 0, 0, 7, GrowingTreeBuilder.Policy.MIXED, 101));
+    }
+}
@@ -0,0 +1,32 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertPerfect;
+
+import org.junit.jupiter.api.Test;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+
+/**
+ * Tests for the HuntAndKillBuilder.
+ */
+class HuntAndKillBuilderTest {
+
+    /**
+     * The hunt works on words of 64 cells, so rows shorter, as long as and
+     * longer than a word are all tried, from every corner and the middle.
+     */
+    @Test
+    void buildIsPerfect() {
+        int[][] sizes = { { 1, 1 }, { 1, 70 }, { 70, 1 }, { 5, 13 }, { 64, 3 }, { 129, 77 } };
+        for (int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            int[][] starts = { { 0, 0 }, { width - 1, 0 }, { width / 2, height / 2 }, { width - 1, height - 1 } };
+            for (int[] start : starts) {
+                Maze maze = new Maze(width, height, Maze.StorageMode.BIT_GRID);
+                new HuntAndKillBuilder(maze, start[0], start[1], 7).build();
+                assertPerfect(maze);
+            }
+        }
+    }
+}
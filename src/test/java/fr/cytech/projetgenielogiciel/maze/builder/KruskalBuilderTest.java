@@ -0,0 +1,27 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertPerfect;
+
+import org.junit.jupiter.api.Test;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+
+/**
+ * Tests for the KruskalBuilder.
+ */
+class KruskalBuilderTest {
+
+    /**
+     * A single cell has no wall to shuffle, a single row or column only has
+     * walls in one direction.
+     */
+    @Test
+    void buildIsPerfect() {
+        int[][] sizes = { { 1, 1 }, { 1, 70 }, { 70, 1 }, { 5, 13 }, { 129, 77 } };
+        for (int[] size : sizes) {
+            Maze maze = new Maze(size[0], size[1], Maze.StorageMode.BIT_GRID);
+            new KruskalBuilder(maze, 7).build();
+            assertPerfect(maze);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import fr.cytech.projetgenielogiciel.maze.Direction;
+import fr.cytech.projetgenielogiciel.maze.Maze;
+
+/**
+ * Assertions on built mazes, shared by the builder tests.
+ */
+final class MazeAssertions {
+    /**
+     * This class only has static methods.
+     */
+    private MazeAssertions() {
+    }
+
+    /**
+     * Asserts that a maze is perfect: it has one less edge than it has cells,
+     * and every cell can be reached from the first one.
+     *
+     * @param maze the maze to check
+     */
+    static void assertPerfect(Maze maze) {
+        int cellCount = maze.getCellCount();
+        int[] neighbors = new int[4];
+
+        long degrees = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            degrees += maze.getNeighbors(cell, neighbors);
+        }
+        assertEquals(cellCount - 1, degrees / 2, "a perfect maze has one less edge than cells");
+
+        boolean[] reached = new boolean[cellCount];
+        int[] queue = new int[cellCount];
+        int head = 0;
+        int tail = 0;
+        reached[0] = true;
+        queue[tail++] = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int count = maze.getNeighbors(cell, neighbors);
+            for (int i = 0; i < count; i++) {
+                if (!reached[neighbors[i]]) {
+                    reached[neighbors[i]] = true;
+                    queue[tail++] = neighbors[i];
+                }
+            }
+        }
+        assertEquals(cellCount, tail, "every cell of a perfect maze is reachable");
+    }
+
+    /**
+     * Asserts that two mazes of the same size have exactly the same
+     * connections.
+     *
+     * @param expected the reference maze
+     * @param actual   the maze to compare to it
+     * @param message  what actual was built with, for the failure message
+     */
+    static void assertSameMaze(Maze expected, Maze actual, String message) {
+        assertEquals(expected.getCellCount(), actual.getCellCount(), message);
+        for (int cell = 0; cell < expected.getCellCount(); cell++) {
+            int x = expected.getCellX(cell);
+            int y = expected.getCellY(cell);
+            for (Direction direction : Direction.values()) {
+                if (expected.hasConnection(x, y, direction) != actual.hasConnection(x, y, direction)) {
+                    fail(message + ": mazes differ at (" + x + ", " + y + ") towards " + direction);
+                }
+            }
+        }
+    }
+}
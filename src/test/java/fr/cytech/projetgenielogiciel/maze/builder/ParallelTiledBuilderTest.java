@@ -0,0 +1,51 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertPerfect;
+import static fr.cytech.projetgenielogiciel.maze.builder.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Tests for the ParallelTiledBuilder.
+ */
+class ParallelTiledBuilderTest extends AbstractParallelBuilderTest {
+
+    /**
+     * The size of the side of a tile, the size of the mazes is not a
+     * multiple of it on purpose.
+     */
+    private static final int TILE_SIZE = 32;
+
+    /**
+     * The number of tiles of the mazes.
+     */
+    private static final int TILE_COUNT = ((WIDTH + TILE_SIZE - 1) / TILE_SIZE)
+            * ((HEIGHT + TILE_SIZE - 1) / TILE_SIZE);
+
+    @Override
+    protected IBuilder create(Maze maze, StateLayer layer, Integer seed, ForkJoinPool pool) {
+        return new ParallelTiledBuilder(maze, layer, seed, TILE_SIZE, pool);
+    }
+
+    @Test
+    void buildAfterSteppingEveryTile() {
+        Maze expected = build(Maze.StorageMode.BIT_GRID, null);
+
+        Maze maze = new Maze(WIDTH, HEIGHT, Maze.StorageMode.BIT_GRID);
+        IBuilder builder = create(maze, maze.getStateLayer(), SEED, null);
+        assertEquals(TILE_COUNT, builder.step(TILE_COUNT));
+        assertFalse(builder.isFinished());
+        assertTrue(builder.build());
+        assertTrue(builder.isFinished());
+        assertSameMaze(expected, maze, "tiles stepped, then build");
+        assertPerfect(maze);
+    }
+}
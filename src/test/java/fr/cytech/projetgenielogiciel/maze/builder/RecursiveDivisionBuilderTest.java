@@ -0,0 +1,19 @@
+package fr.cytech.projetgenielogiciel.maze.builder;
+
+import java.util.concurrent.ForkJoinPool;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+
+/**
+ * Tests for the RecursiveDivisionBuilder.
+ * The mazes are larger than SEQUENTIAL_CUTOFF, so chambers really are
+ * divided as tasks.
+ */
+class RecursiveDivisionBuilderTest extends AbstractParallelBuilderTest {
+
+    @Override
+    protected IBuilder create(Maze maze, StateLayer layer, Integer seed, ForkJoinPool pool) {
+        return new RecursiveDivisionBuilder(maze, layer, seed, pool);
+    }
+}
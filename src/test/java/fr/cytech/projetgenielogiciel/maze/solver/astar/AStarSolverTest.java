@@ -0,0 +1,147 @@
+package fr.cytech.projetgenielogiciel.maze.solver.astar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.cytech.projetgenielogiciel.maze.Maze;
+import fr.cytech.projetgenielogiciel.maze.StateLayer;
+import fr.cytech.projetgenielogiciel.maze.builder.ImperfectDfsBuilder;
+
+/**
+ * Tests for the A* solvers, against a plain BFS.
+ */
+class AStarSolverTest {
+
+    /**
+     * The width of the mazes.
+     */
+    private static final int WIDTH = 41;
+
+    /**
+     * The height of the mazes.
+     */
+    private static final int HEIGHT = 23;
+
+    /**
+     * The number of start and end pairs tried on every maze.
+     */
+    private static final int PAIRS = 20;
+
+    /**
+     * With admissible heuristics and unit factors, every solver finds a
+     * shortest path, even when the maze has loops.
+     */
+    @Test
+    void pathsAreShortest() {
+        for (int seed = 0; seed < 5; seed++) {
+            Maze maze = new Maze(WIDTH, HEIGHT, Maze.StorageMode.BIT_GRID);
+            new ImperfectDfsBuilder(maze, 0, 0, seed, 20).build();
+            int cellCount = maze.getCellCount();
+            assertTrue(edgeCount(maze) > cellCount - 1, "the maze must have loops");
+
+            for (int pair = 0; pair < PAIRS; pair++) {
+                int start = Math.floorMod(seed * 7919 + pair * 104729, cellCount);
+                int end = Math.floorMod(seed * 15485863 + pair * 32452843 + 1, cellCount);
+                if (start == end) {
+                    continue;
+                }
+                int expected = bfsDistance(maze, start, end);
+
+                AStarSolver[] solvers = {
+                        new AStarManhattanSolver(maze, new StateLayer(cellCount), start, end, 1, 1),
+                        new AStarEuclideanSolver(maze, new StateLayer(cellCount), start, end, 1, 1),
+                        new AStarDjikstraSolver(maze, new StateLayer(cellCount), start, end),
+                };
+                for (AStarSolver solver : solvers) {
+                    String name = solver.getClass().getSimpleName() + " from " + start + " to " + end;
+                    assertTrue(solver.solve(), name);
+                    List<Integer> path = solver.getPath();
+                    assertEquals(start, path.get(0), name);
+                    assertEquals(end, path.get(path.size() - 1), name);
+                    assertConnected(maze, path, name);
+                    assertEquals(expected, path.size() - 1, name);
+                }
+            }
+        }
+    }
+
+    /**
+     * There is nothing to solve when the start is the end.
+     */
+    @Test
+    void startIsEnd() {
+        Maze maze = new Maze(5, 5, Maze.StorageMode.BIT_GRID);
+        new ImperfectDfsBuilder(maze, 0, 0, 7, 20).build();
+        AStarSolver solver = new AStarManhattanSolver(maze, new StateLayer(maze.getCellCount()), 3, 3, 1, 1);
+        assertFalse(solver.solve());
+        assertTrue(solver.getPath().isEmpty());
+    }
+
+    /**
+     * Asserts that every cell of a path is connected to the next one.
+     *
+     * @param maze the maze the path goes through
+     * @param path the IDs of the cells of the path
+     * @param name the solver, for the failure message
+     */
+    private static void assertConnected(Maze maze, List<Integer> path, String name) {
+        int[] neighbors = new int[4];
+        for (int i = 1; i < path.size(); i++) {
+            int count = maze.getNeighbors(path.get(i - 1), neighbors);
+            int next = path.get(i);
+            assertTrue(Arrays.stream(neighbors, 0, count).anyMatch(n -> n == next),
+                    name + ": " + path.get(i - 1) + " is not connected to " + next);
+        }
+    }
+
+    /**
+     * Counts the connections of a maze.
+     *
+     * @param maze the maze
+     * @return the number of undirected edges
+     */
+    private static long edgeCount(Maze maze) {
+        int[] neighbors = new int[4];
+        long degrees = 0;
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            degrees += maze.getNeighbors(cell, neighbors);
+        }
+        return degrees / 2;
+    }
+
+    /**
+     * Computes the length of a shortest path with a BFS.
+     *
+     * @param maze  the maze to search
+     * @param start the ID of the starting cell
+     * @param end   the ID of the ending cell
+     * @return the number of moves from start to end, -1 if unreachable
+     */
+    private static int bfsDistance(Maze maze, int start, int end) {
+        int[] distances = new int[maze.getCellCount()];
+        Arrays.fill(distances, -1);
+        int[] queue = new int[maze.getCellCount()];
+        int[] neighbors = new int[4];
+        int head = 0;
+        int tail = 0;
+        distances[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            int count = maze.getNeighbors(cell, neighbors);
+            for (int i = 0; i < count; i++) {
+                if (distances[neighbors[i]] < 0) {
+                    distances[neighbors[i]] = distances[cell] + 1;
+                    queue[tail++] = neighbors[i];
+                }
+            }
+        }
+        return distances[end];
+    }
+}
@@ -0,0 +1,79 @@
+package fr.cytech.projetgenielogiciel.maze.solver.astar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the IndexedMinHeap.
+ */
+class IndexedMinHeapTest {
+
+    @Test
+    void pollsInKeyOrder() {
+        int capacity = 1000;
+        IndexedMinHeap heap = new IndexedMinHeap(capacity);
+        Random random = new Random(7);
+        for (int element = 0; element < capacity; element++) {
+            heap.push(element, random.nextInt(100));
+        }
+        assertEquals(capacity, heap.size());
+
+        double previous = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            int element = heap.poll();
+            assertFalse(heap.contains(element));
+            assertTrue(heap.getKey(element) >= previous, "keys must come out in increasing order");
+            previous = heap.getKey(element);
+        }
+    }
+
+    @Test
+    void pushTracksMembership() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(2));
+        assertEquals(Double.MAX_VALUE, heap.getKey(2));
+
+        heap.push(2, 5.0);
+        assertTrue(heap.contains(2));
+        assertEquals(5.0, heap.getKey(2));
+        assertEquals(1, heap.size());
+        assertEquals(2, heap.get(0));
+
+        assertEquals(2, heap.poll());
+        assertTrue(heap.isEmpty());
+        // Keys are kept after polling
+        assertEquals(5.0, heap.getKey(2));
+    }
+
+    @Test
+    void decreaseKeyMovesUp() {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        for (int element = 0; element < 5; element++) {
+            heap.push(element, 10 + element);
+        }
+        heap.push(4, 1);
+        assertEquals(5, heap.size(), "an updated element is not queued twice");
+        assertEquals(4, heap.poll());
+        assertEquals(0, heap.poll());
+    }
+
+    @Test
+    void increaseKeyMovesDown() {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        for (int element = 0; element < 5; element++) {
+            heap.push(element, 10 + element);
+        }
+        heap.push(0, 20);
+        assertEquals(5, heap.size());
+        int[] expected = { 1, 2, 3, 4, 0 };
+        for (int element : expected) {
+            assertEquals(element, heap.poll());
+        }
+    }
+}